@@ -0,0 +1,48 @@
+package study.querydsl.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * 시나리오 하나의 응답 시간(ns)과 오류 수를 모은다.
+ */
+class LatencyRecorder {
+
+    private long[] latencies = new long[1 << 16];
+    private int count;
+    private long errors;
+
+    synchronized void record(long latencyNanos, boolean success) {
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, latencies.length * 2);
+        }
+        latencies[count++] = latencyNanos;
+        if (!success) {
+            errors++;
+        }
+    }
+
+    synchronized Snapshot snapshot() {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return new Snapshot(sorted, errors);
+    }
+
+    record Snapshot(long[] sorted, long errors) {
+
+        long count() {
+            return sorted.length;
+        }
+
+        double errorRate() {
+            return sorted.length == 0 ? 0.0 : (double) errors / sorted.length;
+        }
+
+        double percentileMillis(double percentile) {
+            if (sorted.length == 0) {
+                return 0.0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package study.querydsl.loadtest;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.QuerydslApplication;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * REST 계층 end-to-end 부하 테스트
+ * 1. 애플리케이션을 내장(in-memory) H2 로 기동하고 loadtest.members 명의 회원을 넣는다.
+ * 2. loadtest.threads 개의 스레드가 warmup 이후 loadtest.durationSeconds 동안 혼합 시나리오 요청을 보낸다.
+ * 3. 시나리오별 처리량, p50/p99/p999 응답 시간, 오류율을 출력하고 report.txt / report.csv 로 남긴다.
+ * 오류율이 loadtest.maxErrorRate 를 넘거나 p99 가 loadtest.maxP99Millis 를 넘으면 실패(exit 1)로 끝난다.
+ */
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws Exception {
+        Path reportDir = Paths.get(args.length > 0 ? args[0] : "build/reports/loadtest");
+        int members = Integer.getInteger("loadtest.members", 10_000);
+        int teams = Integer.getInteger("loadtest.teams", 10);
+        int threads = Integer.getInteger("loadtest.threads", 16);
+        int warmupSeconds = Integer.getInteger("loadtest.warmupSeconds", 5);
+        int durationSeconds = Integer.getInteger("loadtest.durationSeconds", 30);
+        double maxErrorRate = Double.parseDouble(System.getProperty("loadtest.maxErrorRate", "0.01"));
+        double maxP99Millis = Double.parseDouble(System.getProperty("loadtest.maxP99Millis", "0"));
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(QuerydslApplication.class)
+                .run("--spring.profiles.active=loadtest",
+                        "--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--logging.level.org.hibernate.SQL=warn");
+        try {
+            seed(context.getBean(EntityManagerFactory.class), members, teams);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port;
+
+            List<Scenario> scenarios = Scenario.mixed(members, teams);
+            System.out.printf("load test: %d members, %d teams, %d threads, %ds warmup, %ds measured%n",
+                    members, teams, threads, warmupSeconds, durationSeconds);
+            drive(baseUrl, scenarios, threads, warmupSeconds, new LinkedHashMap<>());
+
+            Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+            scenarios.forEach(scenario -> recorders.put(scenario.name(), new LatencyRecorder()));
+            drive(baseUrl, scenarios, threads, durationSeconds, recorders);
+
+            String report = report(recorders, durationSeconds);
+            System.out.println(report);
+            Files.createDirectories(reportDir);
+            Files.writeString(reportDir.resolve("report.txt"), report);
+            Files.writeString(reportDir.resolve("report.csv"), csv(recorders, durationSeconds));
+
+            List<String> violations = violations(recorders, maxErrorRate, maxP99Millis);
+            if (!violations.isEmpty()) {
+                violations.forEach(violation -> System.err.println("FAILED: " + violation));
+                System.exit(1);
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    private static void seed(EntityManagerFactory emf, int members, int teams) {
+        long start = System.currentTimeMillis();
+        EntityManager em = emf.createEntityManager();
+        try {
+            em.getTransaction().begin();
+            List<Team> teamList = new ArrayList<>();
+            for (int i = 0; i < teams; i++) {
+                Team team = new Team("team" + i);
+                em.persist(team);
+                teamList.add(team);
+            }
+            em.flush();
+            List<Long> teamIds = teamList.stream().map(Team::getId).toList();
+            em.clear();
+
+            for (int i = 0; i < members; i++) {
+                Member member = new Member("member" + i, i % 100);
+                member.setTeam(em.getReference(Team.class, teamIds.get(i % teams)));
+                em.persist(member);
+                if (i % 1_000 == 999) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            em.getTransaction().commit();
+        } finally {
+            em.close();
+        }
+        System.out.printf("seeded %d members in %d ms%n", members, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * recorders 가 비어 있으면 결과를 기록하지 않는다. (warmup)
+     */
+    private static void drive(String baseUrl, List<Scenario> scenarios, int threads, int seconds,
+                              Map<String, LatencyRecorder> recorders) throws Exception {
+        int totalWeight = scenarios.stream().mapToInt(Scenario::weight).sum();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        /* 워커는 send() 에서 blocking 되므로, 워커 풀을 HttpClient 의 executor 로 같이 쓰면
+           응답 처리에 쓸 스레드가 없어서 지연이 부풀려진다. HttpClient 는 기본 executor 를 사용한다. */
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            long seed = t;
+            workers.add(executor.submit(() -> {
+                Random random = new Random(seed);
+                while (System.nanoTime() < deadline) {
+                    Scenario scenario = Scenario.pick(scenarios, totalWeight, random);
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + scenario.path().apply(random)))
+                            .timeout(Duration.ofSeconds(10))
+                            .GET()
+                            .build();
+                    long start = System.nanoTime();
+                    boolean success;
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        success = response.statusCode() == 200;
+                    } catch (IOException e) {
+                        success = false;
+                    }
+                    LatencyRecorder recorder = recorders.get(scenario.name());
+                    if (recorder != null) {
+                        recorder.record(System.nanoTime() - start, success);
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        executor.shutdown();
+    }
+
+    private static String report(Map<String, LatencyRecorder> recorders, int seconds) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-20s %10s %10s %8s %10s %10s %10s %10s%n",
+                "scenario", "requests", "req/s", "errors", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)"));
+        long total = 0;
+        for (Map.Entry<String, LatencyRecorder> entry : recorders.entrySet()) {
+            LatencyRecorder.Snapshot snapshot = entry.getValue().snapshot();
+            total += snapshot.count();
+            report.append(String.format("%-20s %10d %10.1f %7.2f%% %10.2f %10.2f %10.2f %10.2f%n",
+                    entry.getKey(), snapshot.count(), (double) snapshot.count() / seconds,
+                    snapshot.errorRate() * 100, snapshot.percentileMillis(50), snapshot.percentileMillis(99),
+                    snapshot.percentileMillis(99.9), snapshot.percentileMillis(100)));
+        }
+        report.append(String.format("%-20s %10d %10.1f%n", "total", total, (double) total / seconds));
+        return report.toString();
+    }
+
+    private static String csv(Map<String, LatencyRecorder> recorders, int seconds) {
+        StringBuilder csv = new StringBuilder("scenario,requests,throughput,error_rate,p50_ms,p99_ms,p999_ms,max_ms\n");
+        recorders.forEach((name, recorder) -> {
+            LatencyRecorder.Snapshot snapshot = recorder.snapshot();
+            csv.append(String.format("%s,%d,%.2f,%.5f,%.3f,%.3f,%.3f,%.3f%n",
+                    name, snapshot.count(), (double) snapshot.count() / seconds, snapshot.errorRate(),
+                    snapshot.percentileMillis(50), snapshot.percentileMillis(99),
+                    snapshot.percentileMillis(99.9), snapshot.percentileMillis(100)));
+        });
+        return csv.toString();
+    }
+
+    private static List<String> violations(Map<String, LatencyRecorder> recorders, double maxErrorRate, double maxP99Millis) {
+        List<String> violations = new ArrayList<>();
+        recorders.forEach((name, recorder) -> {
+            LatencyRecorder.Snapshot snapshot = recorder.snapshot();
+            if (snapshot.errorRate() > maxErrorRate) {
+                violations.add(String.format("%s error rate %.2f%% > %.2f%%", name,
+                        snapshot.errorRate() * 100, maxErrorRate * 100));
+            }
+            if (maxP99Millis > 0 && snapshot.percentileMillis(99) > maxP99Millis) {
+                violations.add(String.format("%s p99 %.2f ms > %.2f ms", name, snapshot.percentileMillis(99), maxP99Millis));
+            }
+        });
+        return violations;
+    }
+}
@@ -0,0 +1,41 @@
+package study.querydsl.loadtest;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * 가중치에 따라 선택되는 GET 요청 시나리오
+ */
+record Scenario(String name, int weight, Function<Random, String> path) {
+
+    /**
+     * HelloController, MemberController(/v1, /v2, /v3) 의 혼합 검색 시나리오
+     */
+    static List<Scenario> mixed(int members, int teams) {
+        return List.of(
+                new Scenario("hello", 5, random -> "/hello"),
+                new Scenario("v1-team", 15, random -> "/v1/members?teamName=team" + random.nextInt(teams)),
+                new Scenario("v1-username", 15, random -> "/v1/members?username=member" + random.nextInt(members)),
+                new Scenario("v2-age-page", 25, random -> {
+                    int ageGoe = random.nextInt(90);
+                    return "/v2/members?ageGoe=" + ageGoe + "&ageLoe=" + (ageGoe + 10)
+                            + "&page=" + random.nextInt(5) + "&size=20";
+                }),
+                new Scenario("v3-team-age-page", 25, random -> "/v3/members?teamName=team" + random.nextInt(teams)
+                        + "&ageGoe=" + random.nextInt(50) + "&page=" + random.nextInt(5) + "&size=20"),
+                new Scenario("v3-prefix-page", 15, random -> "/v3/members?username=member" + random.nextInt(100)
+                        + "&usernameMatch=PREFIX&page=0&size=20"));
+    }
+
+    static Scenario pick(List<Scenario> scenarios, int totalWeight, Random random) {
+        int value = random.nextInt(totalWeight);
+        for (Scenario scenario : scenarios) {
+            value -= scenario.weight();
+            if (value < 0) {
+                return scenario;
+            }
+        }
+        return scenarios.get(scenarios.size() - 1);
+    }
+}
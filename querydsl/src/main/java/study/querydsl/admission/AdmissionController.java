@@ -0,0 +1,92 @@
+package study.querydsl.admission;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 예상 비용에 따라 검색 실행을 허용 / 대기 / 거절한다.
+ * - cost < heavyCost : 가벼운 검색은 제한 없이 바로 실행한다.
+ * - heavyCost <= cost < maxCost : endpoint 별로 동시에 heavyConcurrency 개까지만 실행하고,
+ *   나머지는 heavyWait 동안 기다렸다가 자리가 나지 않으면 거절한다.
+ * - cost >= maxCost : 바로 거절한다. (조건을 더 좁혀야 함)
+ * 무거운 검색이 커넥션 풀을 모두 차지하지 않으므로, 가벼운 검색의 응답 시간이 유지된다.
+ * 지표: member.admission (counter, tag: endpoint, class, outcome), member.admission.heavy.active (gauge)
+ */
+@Component
+public class AdmissionController {
+
+    private final MeterRegistry meterRegistry;
+    private final long heavyCost;
+    private final long maxCost;
+    private final int heavyConcurrency;
+    private final long heavyWaitMillis;
+
+    private final Map<String, Semaphore> heavyPermits = new ConcurrentHashMap<>();
+
+    public AdmissionController(MeterRegistry meterRegistry,
+                               @Value("${member.admission.heavy-cost:5000}") long heavyCost,
+                               @Value("${member.admission.max-cost:1000000}") long maxCost,
+                               @Value("${member.admission.heavy-concurrency:2}") int heavyConcurrency,
+                               @Value("${member.admission.heavy-wait-ms:200}") long heavyWaitMillis) {
+        this.meterRegistry = meterRegistry;
+        this.heavyCost = heavyCost;
+        this.maxCost = maxCost;
+        this.heavyConcurrency = heavyConcurrency;
+        this.heavyWaitMillis = heavyWaitMillis;
+    }
+
+    public <T> T admit(String endpoint, QueryCost cost, Supplier<T> query) {
+        if (cost.cost() < heavyCost) {
+            count(endpoint, "cheap", "admitted");
+            return query.get();
+        }
+        if (cost.cost() >= maxCost) {
+            count(endpoint, "heavy", "rejected");
+            throw new AdmissionRejectedException("search is too broad (estimated cost " + cost.cost()
+                    + " >= " + maxCost + "), add more filters");
+        }
+
+        Semaphore permits = heavyPermits.computeIfAbsent(endpoint, this::newPermits);
+        boolean acquired = permits.tryAcquire();
+        if (!acquired) {
+            try {
+                acquired = permits.tryAcquire(heavyWaitMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!acquired) {
+                count(endpoint, "heavy", "rejected");
+                throw new AdmissionRejectedException("too many expensive searches in progress on " + endpoint);
+            }
+            count(endpoint, "heavy", "queued");
+        } else {
+            count(endpoint, "heavy", "admitted");
+        }
+        try {
+            return query.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    private Semaphore newPermits(String endpoint) {
+        Semaphore permits = new Semaphore(heavyConcurrency, true);
+        Gauge.builder("member.admission.heavy.active", permits, p -> heavyConcurrency - p.availablePermits())
+                .tag("endpoint", endpoint)
+                .description("expensive member searches currently running")
+                .register(meterRegistry);
+        return permits;
+    }
+
+    private void count(String endpoint, String costClass, String outcome) {
+        meterRegistry.counter("member.admission", "endpoint", endpoint, "class", costClass, "outcome", outcome).increment();
+    }
+}
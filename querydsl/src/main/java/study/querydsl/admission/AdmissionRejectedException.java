@@ -0,0 +1,11 @@
+package study.querydsl.admission;
+
+/**
+ * 예상 비용이 너무 크거나, 무거운 검색의 동시 실행 한도가 차서 대기 시간 내에 실행하지 못한 경우
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+    public AdmissionRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,163 @@
+package study.querydsl.admission;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import study.querydsl.tenant.TenantContext;
+import study.querydsl.tenant.TenantPoolEvictedEvent;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 검색 비용 추정(QueryCostEstimator)에 사용하는 member 테이블 통계
+ * 회원 수, 팀 이름별 회원 수, 나이별 회원 수를 refreshInterval 마다 백그라운드에서 다시 계산한다. (회원 수는 나이별 회원 수의 합)
+ * 통계는 tenant 별로 유지하며, 지난 갱신 이후 통계를 조회한 tenant 만 다시 계산한다.
+ * 기본 tenant 는 기동할 때 한 번 바로 계산한다.
+ * 다른 tenant 는 처음 조회된 후 다음 갱신부터 계산되고(그 전까지는 알 수 없는 통계, Snapshot.UNKNOWN), 커넥션 풀이 닫힌 tenant 의 통계는 버린다.
+ */
+@Slf4j
+@Component
+public class MemberTableStats {
+
+    private final JPAQueryFactory queryFactory;
+    private final long refreshIntervalMillis;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "member-table-stats");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+    /* 지난 갱신 이후 통계를 조회한 tenant */
+    private final Set<String> active = ConcurrentHashMap.newKeySet();
+
+    public MemberTableStats(EntityManager em,
+                            @Value("${member.stats.refresh-interval-ms:60000}") long refreshIntervalMillis) {
+        this.queryFactory = new JPAQueryFactory(em);
+        this.refreshIntervalMillis = refreshIntervalMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        /* 첫 갱신 전의 검색이 비어 있는 통계로 비용 0 으로 추정되지 않도록 기본 tenant 는 바로 계산한다 */
+        refreshInBackground(TenantContext.DEFAULT_TENANT);
+        scheduler.scheduleWithFixedDelay(() -> {
+            for (Iterator<String> tenants = active.iterator(); tenants.hasNext(); ) {
+                String tenant = tenants.next();
+                tenants.remove();
+                refreshInBackground(tenant);
+            }
+        }, refreshIntervalMillis, refreshIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    public Snapshot snapshot() {
+        String tenant = TenantContext.current();
+        active.add(tenant);
+        return snapshots.getOrDefault(tenant, Snapshot.UNKNOWN);
+    }
+
+    @EventListener
+    public void onPoolEvicted(TenantPoolEvictedEvent event) {
+        active.remove(event.tenant());
+        snapshots.remove(event.tenant());
+    }
+
+    private void refreshInBackground(String tenant) {
+        try {
+            TenantContext.callInBackground(tenant, this::refresh);
+        } catch (RuntimeException e) {
+            log.warn("failed to refresh member table statistics of tenant {}", tenant, e);
+        }
+    }
+
+    /**
+     * 현재 스레드의 tenant 통계를 다시 계산한다.
+     */
+    public Snapshot refresh() {
+        Map<String, Long> membersByTeamName = new HashMap<>();
+        for (Tuple row : queryFactory
+                .select(team.name, member.count())
+                .from(member)
+                .join(member.team, team)
+                .groupBy(team.name)
+                .fetch()) {
+            if (row.get(team.name) != null) {
+                membersByTeamName.put(row.get(team.name), row.get(member.count()));
+            }
+        }
+
+        NavigableMap<Integer, Long> membersByAge = new TreeMap<>();
+        for (Tuple row : queryFactory
+                .select(member.age, member.count())
+                .from(member)
+                .groupBy(member.age)
+                .fetch()) {
+            membersByAge.put(row.get(member.age), row.get(member.count()));
+        }
+        long members = 0;
+        for (long count : membersByAge.values()) {
+            members += count;
+        }
+
+        Snapshot snapshot = new Snapshot(members, Map.copyOf(membersByTeamName),
+                Collections.unmodifiableNavigableMap(membersByAge));
+        snapshots.put(TenantContext.current(), snapshot);
+        return snapshot;
+    }
+
+    /**
+     * @param known 한 번이라도 계산된 통계인지 여부 (false 면 다른 값은 의미가 없다)
+     */
+    public record Snapshot(long members, Map<String, Long> membersByTeamName, NavigableMap<Integer, Long> membersByAge,
+                           boolean known) {
+
+        static final Snapshot UNKNOWN = new Snapshot(0, Map.of(), new TreeMap<>(), false);
+
+        public Snapshot(long members, Map<String, Long> membersByTeamName, NavigableMap<Integer, Long> membersByAge) {
+            this(members, membersByTeamName, membersByAge, true);
+        }
+
+        /**
+         * 나이가 [ageGoe, ageLoe] 범위인 회원 비율 (null 이면 해당 방향은 제한 없음)
+         */
+        double ageSelectivity(Integer ageGoe, Integer ageLoe) {
+            if (members == 0) {
+                return 0.0;
+            }
+            int from = ageGoe != null ? ageGoe : Integer.MIN_VALUE;
+            int to = ageLoe != null ? ageLoe : Integer.MAX_VALUE;
+            if (from > to) {
+                return 0.0;
+            }
+            long matched = 0;
+            for (long count : membersByAge.subMap(from, true, to, true).values()) {
+                matched += count;
+            }
+            return (double) matched / members;
+        }
+    }
+}
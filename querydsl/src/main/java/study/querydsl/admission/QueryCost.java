@@ -0,0 +1,15 @@
+package study.querydsl.admission;
+
+/**
+ * @param estimatedRows 반환할 것으로 예상되는 행 수
+ * @param scannedRows   인덱스로 좁힐 수 없어서 읽어야 하는 것으로 예상되는 행 수
+ */
+public record QueryCost(long estimatedRows, long scannedRows) {
+
+    /* 행을 읽기만 하는 비용은 반환(엔티티 / DTO 생성, 직렬화)하는 비용보다 훨씬 작다고 본다 */
+    private static final int SCAN_COST_DIVISOR = 10;
+
+    public long cost() {
+        return estimatedRows + scannedRows / SCAN_COST_DIVISOR;
+    }
+}
@@ -0,0 +1,91 @@
+package study.querydsl.admission;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.UsernameMatch;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * MemberSearchCondition 의 shape 과 테이블 통계로 검색 비용을 추정한다.
+ * - 조건끼리는 서로 독립이라고 가정하고 선택도를 곱한다.
+ * - username(정확히 일치 / 대소문자 무시 / 접두사), 팀, 나이 범위 조건은 인덱스를 사용하므로 읽는 행 수도 줄어들고,
+ *   username 부분 일치(CONTAINS)만 있는 조건은 전체를 읽는다.
+ * - 접두사 / 부분 일치는 글자 하나마다 1/ALPHABET 의 선택도를 갖는다고 본다.
+ * - 아직 통계가 계산되지 않은 tenant 는 조건과 상관없이 unknownMembers 명을 모두 읽어서 반환한다고 본다.
+ */
+@Component
+public class QueryCostEstimator {
+
+    private static final double ALPHABET = 26.0;
+
+    private final MemberTableStats memberTableStats;
+    private final long unknownMembers;
+
+    public QueryCostEstimator(MemberTableStats memberTableStats,
+                              @Value("${member.stats.unknown-members:100000}") long unknownMembers) {
+        this.memberTableStats = memberTableStats;
+        this.unknownMembers = unknownMembers;
+    }
+
+    /**
+     * @param limit 페이지 크기 (목록 전체를 반환하면 null)
+     */
+    public QueryCost estimate(MemberSearchCondition condition, Integer limit) {
+        MemberTableStats.Snapshot stats = memberTableStats.snapshot();
+        if (!stats.known()) {
+            return unknown(unknownMembers, limit);
+        }
+        return estimate(stats, condition, limit);
+    }
+
+    static QueryCost unknown(long members, Integer limit) {
+        return new QueryCost(limit != null ? Math.min(members, limit) : members, members);
+    }
+
+    static QueryCost estimate(MemberTableStats.Snapshot stats, MemberSearchCondition condition, Integer limit) {
+        long total = stats.members();
+        if (total == 0) {
+            return new QueryCost(0, 0);
+        }
+        double rows = total;
+        /* 인덱스로 좁힐 수 있는 조건 중 가장 선택도가 좋은 것 기준으로 읽는 행 수 */
+        double indexedRows = total;
+        boolean fullScan = true;
+
+        if (hasText(condition.getUsername())) {
+            UsernameMatch match = condition.getUsernameMatch() != null ? condition.getUsernameMatch() : UsernameMatch.EXACT;
+            int length = condition.getUsername().length();
+            double selectivity = switch (match) {
+                case EXACT, IGNORE_CASE -> 1.0 / total;
+                case PREFIX, CONTAINS -> Math.max(1.0 / total, Math.pow(ALPHABET, -length));
+            };
+            rows *= selectivity;
+            if (match != UsernameMatch.CONTAINS) {
+                indexedRows = Math.min(indexedRows, total * selectivity);
+                fullScan = false;
+            }
+        }
+        if (hasText(condition.getTeamName())) {
+            long teamMembers = stats.membersByTeamName().getOrDefault(condition.getTeamName(), 0L);
+            rows *= (double) teamMembers / total;
+            indexedRows = Math.min(indexedRows, teamMembers);
+            fullScan = false;
+        }
+        if (condition.getAgeGoe() != null || condition.getAgeLoe() != null) {
+            double selectivity = stats.ageSelectivity(condition.getAgeGoe(), condition.getAgeLoe());
+            rows *= selectivity;
+            /* idx_member_age 범위 조회 */
+            indexedRows = Math.min(indexedRows, total * selectivity);
+            fullScan = false;
+        }
+
+        long estimatedRows = (long) Math.ceil(rows);
+        if (limit != null) {
+            estimatedRows = Math.min(estimatedRows, limit);
+        }
+        long scannedRows = fullScan ? total : (long) Math.ceil(indexedRows);
+        return new QueryCost(estimatedRows, scannedRows);
+    }
+}
@@ -0,0 +1,64 @@
+package study.querydsl.cdc;
+
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.jpa.impl.JPADeleteClause;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydsl.entity.Member;
+import study.querydsl.search.MemberNameIndexLoader;
+import study.querydsl.tenant.TenantContext;
+
+/**
+ * Querydsl 벌크 update / delete 는 영속성 컨텍스트와 Hibernate 이벤트를 거치지 않으므로,
+ * 이 클래스를 통해서 실행해야 ChangeLog 에 기록된다.
+ * 트랜잭션 안에서 실행하면 커밋된 후에 기록한다.
+ * 변경된 회원을 알 수 없으므로 Member 에 대한 벌크 연산 후에는 MemberNameIndex 를 다시 적재한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class BulkChangeCapture {
+
+    private final ChangeLogs changeLogs;
+    private final MemberNameIndexLoader memberNameIndexLoader;
+
+    public long execute(JPAUpdateClause clause, EntityPath<?> entity) {
+        long affected = clause.execute();
+        record(ChangeType.BULK_UPDATE, entity, clause.toString(), affected);
+        return affected;
+    }
+
+    public long execute(JPADeleteClause clause, EntityPath<?> entity) {
+        long affected = clause.execute();
+        record(ChangeType.BULK_DELETE, entity, clause.toString(), affected);
+        return affected;
+    }
+
+    private void record(ChangeType type, EntityPath<?> entity, String statement, long affected) {
+        if (affected == 0) {
+            return;
+        }
+        String entityName = entity.getType().getSimpleName();
+        String detail = statement + " (" + affected + " rows)";
+        String tenant = TenantContext.current();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            committed(type, entity, entityName, detail, tenant);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                committed(type, entity, entityName, detail, tenant);
+            }
+        });
+    }
+
+    private void committed(ChangeType type, EntityPath<?> entity, String entityName, String detail, String tenant) {
+        changeLogs.of(tenant).append(type, entityName, null, detail);
+        if (entity.getType() == Member.class) {
+            memberNameIndexLoader.load(tenant);
+        }
+    }
+}
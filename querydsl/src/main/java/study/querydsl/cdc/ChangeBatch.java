@@ -0,0 +1,9 @@
+package study.querydsl.cdc;
+
+import java.util.List;
+
+/**
+ * @param nextOffset 다음 요청에서 from 으로 넘길 offset
+ */
+public record ChangeBatch(List<ChangeRecord> changes, long nextOffset) {
+}
@@ -0,0 +1,113 @@
+package study.querydsl.cdc;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.tenant.TenantContext;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Member / Team 의 insert / update / delete 를 커밋된 후에 ChangeLog 에 기록한다.
+ * (롤백된 변경은 기록되지 않는다)
+ * 변경을 커밋한 세션의 tenant 로그에 기록한다.
+ * 이 빈을 주입받는 곳이 없으므로, lazy-initialization(fast profile)에서도 기동 시 리스너를 등록하도록 바로 생성한다.
+ */
+@Component
+@Lazy(false)
+@RequiredArgsConstructor
+public class ChangeCaptureListener implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final Set<Class<?>> CAPTURED = Set.of(Member.class, Team.class);
+
+    private final EntityManagerFactory emf;
+    private final ChangeLogs changeLogs;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return CAPTURED.contains(persister.getMappedClass());
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        changeLog(event.getSession()).append(ChangeType.INSERT, entityName(event.getPersister()), id(event.getId()),
+                null);
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        changeLog(event.getSession()).append(ChangeType.UPDATE, entityName(event.getPersister()), id(event.getId()),
+                dirtyProperties(event));
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        changeLog(event.getSession()).append(ChangeType.DELETE, entityName(event.getPersister()), id(event.getId()),
+                null);
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    /* multi-tenancy 를 사용하지 않으면 세션의 tenant 가 없으므로 기본 tenant 로그에 기록한다 */
+    private ChangeLog changeLog(SharedSessionContractImplementor session) {
+        String tenant = session.getTenantIdentifier();
+        return changeLogs.of(tenant != null ? tenant : TenantContext.DEFAULT_TENANT);
+    }
+
+    private static String dirtyProperties(PostUpdateEvent event) {
+        int[] dirty = event.getDirtyProperties();
+        if (dirty == null) {
+            return null;
+        }
+        String[] names = event.getPersister().getPropertyNames();
+        return Arrays.stream(dirty)
+                .mapToObj(index -> names[index])
+                .collect(Collectors.joining(","));
+    }
+
+    private static String entityName(EntityPersister persister) {
+        return persister.getMappedClass().getSimpleName();
+    }
+
+    private static Long id(Object id) {
+        return id instanceof Number number ? number.longValue() : null;
+    }
+}
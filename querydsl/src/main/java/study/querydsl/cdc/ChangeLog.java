@@ -0,0 +1,190 @@
+package study.querydsl.cdc;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Member / Team 변경 기록(CDC)을 보관하는 append-only 로그
+ * - 최근 ringCapacity 개의 레코드는 메모리 ring buffer 에서 바로 읽는다.
+ * - 모든 레코드는 changes.log 파일에 한 줄씩 추가되며, indexInterval 개마다 (offset -> 파일 위치) 를 sparse index 로 남겨서
+ *   ring buffer 에 없는 오래된 offset 부터 읽을 때는 가장 가까운 index 위치부터 파일을 읽는다.
+ * - 재기동 시 파일을 한 번 훑어서 다음 offset 과 sparse index 를 복구하고, 마지막에 잘린 줄이 있으면 버린다.
+ * tenant 마다 별도의 로그를 사용한다. (ChangeLogs)
+ */
+@Slf4j
+public class ChangeLog {
+
+    static final String FILE_NAME = "changes.log";
+
+    private final Path file;
+    private final FileChannel channel;
+    private final boolean fsync;
+    private final int indexInterval;
+
+    private final ChangeRecord[] ring;
+    private final NavigableMap<Long, Long> sparseIndex = new TreeMap<>();
+    /* 이번 실행에서 처음 추가한 offset (이보다 작은 offset 은 ring buffer 에 없다) */
+    private final long firstRingOffset;
+    private long nextOffset;
+    private long position;
+
+    public ChangeLog(String directory, int ringCapacity, int indexInterval, boolean fsync) {
+        this.file = Paths.get(directory).resolve(FILE_NAME);
+        this.fsync = fsync;
+        this.indexInterval = indexInterval;
+        this.ring = new ChangeRecord[ringCapacity];
+        try {
+            Files.createDirectories(file.getParent());
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot open change log " + file, e);
+        }
+        this.firstRingOffset = nextOffset;
+    }
+
+    public synchronized void close() throws IOException {
+        channel.force(false);
+        channel.close();
+    }
+
+    public synchronized ChangeRecord append(ChangeType type, String entity, Long entityId, String detail) {
+        ChangeRecord record = new ChangeRecord(nextOffset, System.currentTimeMillis(), type, entity, entityId, detail);
+        ByteBuffer buffer = ByteBuffer.wrap(record.encode());
+        long recordPosition = position;
+        try {
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            if (fsync) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            position = recordPosition;
+            throw new UncheckedIOException("cannot append to change log " + file, e);
+        }
+        if (record.offset() % indexInterval == 0) {
+            sparseIndex.put(record.offset(), recordPosition);
+        }
+        ring[(int) (record.offset() % ring.length)] = record;
+        nextOffset++;
+        return record;
+    }
+
+    public synchronized long nextOffset() {
+        return nextOffset;
+    }
+
+    /**
+     * from 이상인 offset 의 레코드를 최대 limit 개 반환한다.
+     */
+    public ChangeBatch read(long from, int limit) {
+        long start = Math.max(0, from);
+        long end;
+        long scanFrom;
+        long scanTo;
+        synchronized (this) {
+            end = Math.min(nextOffset, start + limit);
+            if (start >= end) {
+                return new ChangeBatch(List.of(), start);
+            }
+            if (start >= Math.max(firstRingOffset, nextOffset - ring.length)) {
+                List<ChangeRecord> records = new ArrayList<>((int) (end - start));
+                for (long offset = start; offset < end; offset++) {
+                    records.add(ring[(int) (offset % ring.length)]);
+                }
+                return new ChangeBatch(records, end);
+            }
+            Map.Entry<Long, Long> floor = sparseIndex.floorEntry(start);
+            scanFrom = floor != null ? floor.getValue() : 0;
+            scanTo = position;
+        }
+
+        List<ChangeRecord> records = new ArrayList<>();
+        try (FileChannel reader = FileChannel.open(file, StandardOpenOption.READ)) {
+            reader.position(scanFrom);
+            InputStream in = new BufferedInputStream(Channels.newInputStream(reader), 64 * 1024);
+            ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+            long filePosition = scanFrom;
+            while (filePosition < scanTo && records.size() < end - start) {
+                int length = readLine(in, line);
+                if (length < 0) {
+                    break;
+                }
+                filePosition += length;
+                ChangeRecord record = ChangeRecord.decode(line.toString(StandardCharsets.UTF_8));
+                if (record.offset() >= start) {
+                    records.add(record);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot read change log " + file, e);
+        }
+        long next = records.isEmpty() ? start : records.get(records.size() - 1).offset() + 1;
+        return new ChangeBatch(records, next);
+    }
+
+    private void recover() throws IOException {
+        long size = channel.size();
+        long filePosition = 0;
+        /* 스트림을 닫으면 channel 도 닫히므로 닫지 않는다 */
+        InputStream in = new BufferedInputStream(Channels.newInputStream(channel.position(0)), 64 * 1024);
+        try {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+            while (filePosition < size) {
+                int length = readLine(in, line);
+                if (length < 0) {
+                    break;
+                }
+                ChangeRecord record = ChangeRecord.decode(line.toString(StandardCharsets.UTF_8));
+                if (record.offset() % indexInterval == 0) {
+                    sparseIndex.put(record.offset(), filePosition);
+                }
+                nextOffset = record.offset() + 1;
+                filePosition += length;
+            }
+        } catch (IllegalArgumentException e) {
+            log.warn("discarding corrupted change log tail at position {} of {}", filePosition, file);
+        }
+        if (filePosition < size) {
+            channel.truncate(filePosition);
+        }
+        position = filePosition;
+    }
+
+    /**
+     * '\n' 까지 읽어서 line 에 담고(줄바꿈 제외), 읽은 바이트 수를 반환한다.
+     * 줄바꿈 없이 파일이 끝나면(쓰다가 중단된 줄) -1 을 반환한다.
+     */
+    private static int readLine(InputStream in, ByteArrayOutputStream line) throws IOException {
+        line.reset();
+        int length = 0;
+        int b;
+        while ((b = in.read()) != -1) {
+            length++;
+            if (b == '\n') {
+                return length;
+            }
+            line.write(b);
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,85 @@
+package study.querydsl.cdc;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import study.querydsl.tenant.TenantContext;
+import study.querydsl.tenant.TenantPoolEvictedEvent;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * tenant 별 변경 로그
+ * 기본 tenant 는 member.cdc.dir 에, 나머지 tenant 는 member.cdc.dir/{tenant} 에 로그 파일을 두고,
+ * 처음 사용될 때 연다. offset 도 tenant 마다 따로 증가한다.
+ * 커넥션 풀이 닫힌 tenant 의 로그는 닫고, 다시 사용되면 파일에서 복구해서 연다.
+ */
+@Slf4j
+@Component
+public class ChangeLogs {
+
+    private final String directory;
+    private final int ringCapacity;
+    private final int indexInterval;
+    private final boolean fsync;
+
+    private final Map<String, ChangeLog> logs = new ConcurrentHashMap<>();
+
+    public ChangeLogs(@Value("${member.cdc.dir:build/cdc}") String directory,
+                      @Value("${member.cdc.ring-capacity:10000}") int ringCapacity,
+                      @Value("${member.cdc.index-interval:256}") int indexInterval,
+                      @Value("${member.cdc.fsync:false}") boolean fsync) {
+        this.directory = directory;
+        this.ringCapacity = ringCapacity;
+        this.indexInterval = indexInterval;
+        this.fsync = fsync;
+    }
+
+    @PreDestroy
+    public void closeAll() {
+        logs.keySet().forEach(this::close);
+    }
+
+    /**
+     * 현재 스레드의 tenant 로그
+     */
+    public ChangeLog current() {
+        return of(TenantContext.current());
+    }
+
+    public ChangeLog of(String tenant) {
+        return logs.computeIfAbsent(tenant, this::open);
+    }
+
+    /**
+     * 열려 있는 tenant 로그를 닫는다. 다시 사용되면 파일에서 복구해서 연다.
+     */
+    public void close(String tenant) {
+        ChangeLog changeLog = logs.remove(tenant);
+        if (changeLog == null) {
+            return;
+        }
+        try {
+            changeLog.close();
+        } catch (IOException e) {
+            log.warn("cannot close change log of tenant {}", tenant, e);
+        }
+    }
+
+    @EventListener
+    public void onPoolEvicted(TenantPoolEvictedEvent event) {
+        close(event.tenant());
+    }
+
+    private ChangeLog open(String tenant) {
+        String tenantDirectory = TenantContext.isDefault(tenant)
+                ? directory
+                : Paths.get(directory).resolve(tenant).toString();
+        return new ChangeLog(tenantDirectory, ringCapacity, indexInterval, fsync);
+    }
+}
@@ -0,0 +1,40 @@
+package study.querydsl.cdc;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 변경 로그의 한 줄
+ * offset \t timestamp \t type \t entity \t entityId \t detail
+ *
+ * @param entityId 벌크 연산이면 null
+ * @param detail   UPDATE 는 변경된 프로퍼티 이름, 벌크 연산은 실행한 JPQL 과 영향받은 row 수
+ */
+public record ChangeRecord(long offset, long timestamp, ChangeType type, String entity, Long entityId, String detail) {
+
+    private static final String NULL = "-";
+
+    byte[] encode() {
+        String line = offset + "\t" + timestamp + "\t" + type + "\t" + entity + "\t"
+                + (entityId != null ? entityId : NULL) + "\t" + (detail != null ? sanitize(detail) : NULL) + "\n";
+        return line.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static ChangeRecord decode(String line) {
+        String[] fields = line.split("\t", 6);
+        if (fields.length != 6) {
+            throw new IllegalArgumentException("malformed change record: " + line);
+        }
+        return new ChangeRecord(
+                Long.parseLong(fields[0]),
+                Long.parseLong(fields[1]),
+                ChangeType.valueOf(fields[2]),
+                fields[3],
+                NULL.equals(fields[4]) ? null : Long.valueOf(fields[4]),
+                NULL.equals(fields[5]) ? null : fields[5]);
+    }
+
+    /* 한 레코드는 한 줄이어야 하므로 구분자로 쓰는 문자는 공백으로 바꾼다 */
+    private static String sanitize(String value) {
+        return value.replaceAll("[\\t\\r\\n]+", " ").trim();
+    }
+}
@@ -0,0 +1,10 @@
+package study.querydsl.cdc;
+
+public enum ChangeType {
+    INSERT,
+    UPDATE,
+    DELETE,
+    /* 벌크 연산은 영향받은 id 를 알 수 없으므로, 소비자는 해당 엔티티 전체를 다시 동기화해야 한다 */
+    BULK_UPDATE,
+    BULK_DELETE
+}
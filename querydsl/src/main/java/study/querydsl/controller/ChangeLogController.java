@@ -0,0 +1,25 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.cdc.ChangeBatch;
+import study.querydsl.cdc.ChangeLogs;
+
+/**
+ * 변경 로그를 offset 부터 읽는다. 응답의 nextOffset 을 다음 요청의 from 으로 넘기면서 따라가면 된다.
+ * 요청한 tenant 의 로그만 읽는다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class ChangeLogController {
+
+    private final ChangeLogs changeLogs;
+
+    @GetMapping("/cdc/changes")
+    public ChangeBatch changes(@RequestParam(value = "from", defaultValue = "0") long from,
+                               @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        return changeLogs.current().read(from, Math.max(0, Math.min(limit, 1000)));
+    }
+}
@@ -1,10 +1,12 @@
 package study.querydsl.controller;
 
-import jakarta.annotation.PostConstruct;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.entity.Member;
@@ -17,7 +19,9 @@ public class InitMember {
 
     private final InitMemberService initMemberService;
 
-    @PostConstruct
+    /* 기동(readiness)을 막지 않도록, 애플리케이션이 준비된 이후에 별도 스레드에서 데이터를 넣는다 */
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
     public void init() {
         initMemberService.init();
     }
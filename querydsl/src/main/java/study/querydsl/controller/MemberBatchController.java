@@ -0,0 +1,73 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.dto.MemberCreateRequest;
+import study.querydsl.ingest.AckMode;
+import study.querydsl.ingest.IngestionRejectedException;
+import study.querydsl.ingest.IngestionStats;
+import study.querydsl.ingest.MemberIngestionQueue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+@RestController
+@RequiredArgsConstructor
+public class MemberBatchController {
+
+    private final MemberIngestionQueue memberIngestionQueue;
+
+    @Value("${member.ingest.ack-timeout-ms:5000}")
+    private long ackTimeoutMillis;
+
+    /**
+     * ack=ACCEPTED(기본값) 이면 버퍼 적재 후 202, ack=DURABLE 이면 커밋 후 201 을 응답한다.
+     */
+    @PostMapping("/members/batch")
+    public ResponseEntity<Map<String, Object>> createMembers(@RequestBody List<MemberCreateRequest> requests,
+                                                             @RequestParam(value = "ack", defaultValue = "ACCEPTED") AckMode ack)
+            throws InterruptedException {
+        CompletableFuture<Void> committed = memberIngestionQueue.submit(requests);
+        if (ack == AckMode.ACCEPTED) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(Map.of("count", requests.size(), "ack", ack));
+        }
+
+        try {
+            committed.get(ackTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            /* 버퍼에는 적재되었으므로 이후에 저장될 수 있다 */
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(Map.of("count", requests.size(), "ack", AckMode.ACCEPTED));
+        } catch (ExecutionException e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("count", requests.size(), "error", String.valueOf(e.getCause().getMessage())));
+        }
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(Map.of("count", requests.size(), "ack", ack));
+    }
+
+    @GetMapping("/members/batch/stats")
+    public IngestionStats stats() {
+        return memberIngestionQueue.stats();
+    }
+
+    @ExceptionHandler(IngestionRejectedException.class)
+    public ResponseEntity<Map<String, Object>> rejected(IngestionRejectedException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(Map.of("error", e.getMessage()));
+    }
+}
@@ -1,16 +1,34 @@
 package study.querydsl.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import study.querydsl.admission.AdmissionRejectedException;
+import study.querydsl.dto.MemberLookupRequest;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDTO;
 import study.querydsl.repository.MemberJpaRepository;
 import study.querydsl.repository.MemberRepository;
+import study.querydsl.search.InvalidSearchException;
+import study.querydsl.search.MemberPredicateCache;
+import study.querydsl.service.MemberSearchService;
+import study.querydsl.timeout.QueryDeadlineExceededException;
+import study.querydsl.timeout.SearchTimeouts;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequiredArgsConstructor
@@ -18,20 +36,76 @@ public class MemberController {
 
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final MemberSearchService memberSearchService;
+    private final MemberPredicateCache memberPredicateCache;
+    private final SearchTimeouts searchTimeouts;
 
+    /*
+     * v1 ~ v3 는 endpoint 별 시간 예산 안에서 비동기로 실행된다. (SearchTimeouts)
+     * 예산이 끝나거나 클라이언트가 연결을 끊으면 실행 중인 쿼리를 취소하고 503 을 응답한다.
+     */
     @GetMapping("/v1/members")
-    public List<MemberTeamDTO> searchMemberV1(MemberSearchCondition condition) {
-        return memberJpaRepository.searchByWhereParameter(condition);
+    public WebAsyncTask<List<MemberTeamDTO>> searchMemberV1(MemberSearchCondition condition) {
+        return searchTimeouts.withBudget("/v1/members",
+                () -> memberSearchService.searchByWhereParameter(condition));
     }
 
     @GetMapping("/v2/members")
-    public Page<MemberTeamDTO> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchWithPageSimple(condition, pageable);
+    public WebAsyncTask<Page<MemberTeamDTO>> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
+        return searchTimeouts.withBudget("/v2/members",
+                () -> memberSearchService.searchWithPageSimple(condition, pageable));
     }
 
     @GetMapping("/v3/members")
-    public Page<MemberTeamDTO> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
-        return memberRepository.searchWithPageComplex(condition, pageable);
+    public WebAsyncTask<Page<MemberTeamDTO>> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
+        return searchTimeouts.withBudget("/v3/members",
+                () -> memberSearchService.searchWithPageComplex(condition, pageable));
+    }
+
+    /**
+     * ?username=mem&team.name=teamA&age=20&age=30 형태의 조건으로 검색한다.
+     * 허용되는 경로와 연산자는 MemberQuerydslBinderCustomizer 를 참고
+     */
+    @GetMapping("/v4/members")
+    public Page<MemberTeamDTO> searchMemberV4(@RequestParam MultiValueMap<String, String> parameters, Pageable pageable) {
+        MultiValueMap<String, String> filters = new LinkedMultiValueMap<>(parameters);
+        filters.remove("page");
+        filters.remove("size");
+        filters.remove("sort");
+        Pageable limited = PageRequest.of(pageable.getPageNumber(), Math.min(pageable.getPageSize(), 100), pageable.getSort());
+        return memberRepository.searchByPredicate(memberPredicateCache.resolve(filters), limited);
+    }
+
+    @PostMapping("/members/lookup")
+    public List<MemberTeamDTO> lookupMembers(@RequestBody MemberLookupRequest request) {
+        return memberJpaRepository.lookup(request.getIds(), request.getUsernames());
+    }
+
+    @GetMapping("/members/search")
+    public List<MemberTeamDTO> searchMemberByUsername(@RequestParam("q") String q,
+                                                      @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        if (limit < 1) {
+            throw new InvalidSearchException("limit must be at least 1");
+        }
+        return memberRepository.searchByUsernameFragment(q, Math.min(limit, 1000));
+    }
+
+    @ExceptionHandler(AdmissionRejectedException.class)
+    public ResponseEntity<Map<String, Object>> rejected(AdmissionRejectedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header("Retry-After", "1")
+                .body(Map.of("error", e.getMessage()));
+    }
+
+    @ExceptionHandler({
+            QueryDeadlineExceededException.class,
+            jakarta.persistence.QueryTimeoutException.class,
+            org.hibernate.QueryTimeoutException.class,
+            org.springframework.dao.QueryTimeoutException.class})
+    public ResponseEntity<Map<String, Object>> timedOut(RuntimeException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(Map.of("error", "search timed out, narrow the conditions or retry later"));
     }
 
 }
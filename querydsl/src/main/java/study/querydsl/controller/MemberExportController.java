@@ -0,0 +1,31 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.export.ExportProgress;
+import study.querydsl.export.MemberExportJob;
+
+@RestController
+@RequiredArgsConstructor
+public class MemberExportController {
+
+    private final MemberExportJob memberExportJob;
+
+    /**
+     * 이름이 같은 export 가 중간에 멈췄다면 마지막 체크포인트부터 이어서 진행한다.
+     */
+    @PostMapping("/exports/members/{name}")
+    public ResponseEntity<ExportProgress> startExport(@PathVariable("name") String name) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(memberExportJob.start(name));
+    }
+
+    @GetMapping("/exports/members/{name}")
+    public ResponseEntity<ExportProgress> exportProgress(@PathVariable("name") String name) {
+        return ResponseEntity.of(memberExportJob.progress(name));
+    }
+}
@@ -0,0 +1,25 @@
+package study.querydsl.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.dto.TeamMembersDTO;
+import study.querydsl.repository.TeamQueryRepository;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+    private final TeamQueryRepository teamQueryRepository;
+
+    @GetMapping("/v1/teams")
+    public Page<TeamMembersDTO> searchTeamsWithMembers(@RequestParam(value = "teamName", required = false) String teamName,
+                                                       Pageable pageable) {
+        Pageable limited = PageRequest.of(pageable.getPageNumber(), Math.min(pageable.getPageSize(), 100));
+        return teamQueryRepository.findTeamsWithMembers(teamName, limited);
+    }
+}
@@ -0,0 +1,72 @@
+package study.querydsl.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydsl.tenant.TenantContext;
+import study.querydsl.tenant.TenantSchemaProvisioner;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+
+/**
+ * tenant 등록 (TenantFilter 는 등록된 tenant 의 요청만 받는다)
+ * 스키마와 테이블을 만드는 관리 작업이므로 X-Admin-Token 헤더가 member.tenancy.admin-token 과 같은 요청만 받고,
+ * 그 외에는 403 으로 응답한다. (admin-token 이 설정되지 않으면 모든 요청을 거부한다)
+ */
+@RestController
+@ConditionalOnProperty(name = "member.tenancy.enabled", havingValue = "true")
+public class TenantAdminController {
+
+    public static final String ADMIN_TOKEN_HEADER = "X-Admin-Token";
+
+    private final TenantSchemaProvisioner provisioner;
+    private final byte[] adminToken;
+
+    public TenantAdminController(TenantSchemaProvisioner provisioner,
+                                 @Value("${member.tenancy.admin-token:}") String adminToken) {
+        this.provisioner = provisioner;
+        this.adminToken = adminToken.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 새로 등록하면 201, 이미 등록된 tenant 면 200 을 응답한다.
+     */
+    @PostMapping("/admin/tenants/{tenant}")
+    public ResponseEntity<Map<String, Object>> provision(@RequestHeader(value = ADMIN_TOKEN_HEADER, required = false) String token,
+                                                         @PathVariable("tenant") String tenantId) {
+        if (!authorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        String tenant = TenantContext.normalize(tenantId);
+        boolean created = provisioner.provision(tenant);
+        return ResponseEntity.status(created ? HttpStatus.CREATED : HttpStatus.OK)
+                .body(Map.of("tenant", tenant, "created", created));
+    }
+
+    @GetMapping("/admin/tenants/{tenant}")
+    public ResponseEntity<Map<String, Object>> tenant(@RequestHeader(value = ADMIN_TOKEN_HEADER, required = false) String token,
+                                                      @PathVariable("tenant") String tenantId) {
+        if (!authorized(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        String tenant = TenantContext.normalize(tenantId);
+        if (!provisioner.isProvisioned(tenant)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(Map.of("tenant", tenant));
+    }
+
+    /* 토큰을 비교하는 시간으로 일치하는 길이를 알 수 없도록 MessageDigest.isEqual 로 비교한다 */
+    private boolean authorized(String token) {
+        return adminToken.length > 0 && token != null
+                && MessageDigest.isEqual(adminToken, token.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,18 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class MemberCreateRequest {
+    private String username;
+    private int age;
+    private Long teamId;
+
+    public MemberCreateRequest(String username, int age, Long teamId) {
+        this.username = username;
+        this.age = age;
+        this.teamId = teamId;
+    }
+}
@@ -0,0 +1,11 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class MemberLookupRequest {
+    private List<Long> ids;
+    private List<String> usernames;
+}
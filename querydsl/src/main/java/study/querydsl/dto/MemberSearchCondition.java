@@ -2,10 +2,26 @@ package study.querydsl.dto;
 
 import lombok.Data;
 
+import static org.springframework.util.StringUtils.hasText;
+
 @Data
 public class MemberSearchCondition {
     private String username;
+    private UsernameMatch usernameMatch;
     private String teamName;
     private Integer ageGoe;
     private Integer ageLoe;
+
+    /**
+     * 값은 빼고 어떤 조건이 있는지만 나타낸다. 같은 shape 의 검색은 같은 형태의 SQL 이 된다.
+     * ex) username=PREFIX,team=true,ageGoe=false,ageLoe=false
+     */
+    public String shape() {
+        String usernameShape = !hasText(username) ? "none"
+                : usernameMatch != null ? usernameMatch.name() : UsernameMatch.EXACT.name();
+        return "username=" + usernameShape
+                + ",team=" + hasText(teamName)
+                + ",ageGoe=" + (ageGoe != null)
+                + ",ageLoe=" + (ageLoe != null);
+    }
 }
@@ -0,0 +1,18 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+public class TeamMembersDTO {
+    private Long teamId;
+    private String teamName;
+    private List<MemberDTO> members = new ArrayList<>();
+
+    public TeamMembersDTO(Long teamId, String teamName) {
+        this.teamId = teamId;
+        this.teamName = teamName;
+    }
+}
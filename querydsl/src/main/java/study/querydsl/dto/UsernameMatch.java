@@ -0,0 +1,15 @@
+package study.querydsl.dto;
+
+/**
+ * username 검색 방식
+ * - EXACT: 대소문자를 구분하는 완전 일치 (기본값)
+ * - IGNORE_CASE: 대소문자를 구분하지 않는 완전 일치
+ * - PREFIX: 대소문자를 구분하지 않는 접두어 검색
+ * - CONTAINS: 대소문자를 구분하지 않는 부분 문자열 검색 (인덱스를 사용할 수 없으므로 주의)
+ */
+public enum UsernameMatch {
+    EXACT,
+    IGNORE_CASE,
+    PREFIX,
+    CONTAINS
+}
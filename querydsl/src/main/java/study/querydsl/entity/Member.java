@@ -2,27 +2,57 @@ package study.querydsl.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import study.querydsl.support.ConfiguredSequenceGenerator;
+
+import java.util.Locale;
 
 @Entity
 @Getter
 @Setter // 실무에서 Entity에 setter의 사용은 비권장함
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
+@Table(indexes = {
+        @Index(name = "idx_member_username", columnList = "username"),
+        @Index(name = "idx_member_username_lower", columnList = "username_lower"),
+        /* team_id 단위 논리 파티션 (PartitionedMemberSearch) 내에서 나이 범위 조건까지 인덱스로 처리 */
+        @Index(name = "idx_member_team_age", columnList = "team_id, age"),
+        /* 나이순 페이지 정렬(MemberSort)을 인덱스 순서로 처리 */
+        @Index(name = "idx_member_age", columnList = "age")
+})
 public class Member {
 
+    /* 시퀀스를 allocationSize 단위로 한 번만 호출하고, 그 사이의 id 는 메모리에서 할당한다 (pooled-lo)
+       블록 크기는 hibernate.id.allocation_size.member_seq 로 바꿀 수 있다 (ConfiguredSequenceGenerator) */
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @GenericGenerator(name = "member_seq_generator", type = ConfiguredSequenceGenerator.class, parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "member_seq"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "100")})
     @Column(name = "member_id")
     private Long id;
 
     private String username;
 
+    /* lower(username) 조건은 인덱스를 타지 못하므로, 소문자로 정규화한 값을 별도 컬럼에 저장해서 인덱스를 건다 */
+    @Setter(AccessLevel.NONE)
+    @Column(name = "username_lower")
+    private String usernameLower;
+
     private int age;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "team_id")
     private Team team;
 
+    /* 동시에 같은 회원의 팀을 바꾸는 경우 나중에 커밋하는 쪽이 실패하도록 낙관적 락을 사용한다 */
+    @Version
+    @Setter(AccessLevel.NONE)
+    private Long version;
+
     public Member(String username) {
         this(username, 0, null);
     }
@@ -32,16 +62,34 @@ public class Member {
     }
 
     public Member(String username, int age, Team team) {
-        this.username = username;
+        setUsername(username);
         this.age = age;
         if (team != null) {
             changeTeam(team);
         }
     }
 
+    public void setUsername(String username) {
+        this.username = username;
+        this.usernameLower = normalizeUsername(username);
+    }
+
+    /**
+     * 이전 팀과 새 팀의 members 컬렉션은 이미 로딩된 경우에만 맞추어 준다.
+     * (팀 이동 때문에 팀 엔티티와 members 컬렉션 전체를 읽어오지 않도록)
+     */
     public void changeTeam(Team team) {
+        if (this.team != null && Hibernate.isInitialized(this.team)
+                && Hibernate.isInitialized(this.team.getMembers())) {
+            this.team.getMembers().remove(this);
+        }
         this.team = team;
-        team.getMembers().add(this);
+        if (Hibernate.isInitialized(team)) {
+            team.getMembers().add(this);
+        }
     }
 
+    public static String normalizeUsername(String username) {
+        return username != null ? username.toLowerCase(Locale.ROOT) : null;
+    }
 }
@@ -0,0 +1,48 @@
+package study.querydsl.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * member left join team 결과를 미리 펼쳐 둔 조회 전용 테이블
+ * 애플리케이션에서 직접 저장하지 않고, MemberTeamViewMaintainer 가 Member / Team 의 변경을 따라서 갱신한다.
+ */
+@Entity
+@Immutable
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+@Table(name = "member_team_view", indexes = {
+        @Index(name = "idx_member_team_view_username", columnList = "username"),
+        @Index(name = "idx_member_team_view_username_lower", columnList = "username_lower"),
+        @Index(name = "idx_member_team_view_team_name_age", columnList = "team_name, age"),
+        @Index(name = "idx_member_team_view_team_id", columnList = "team_id")
+})
+public class MemberTeamView {
+
+    @Id
+    @Column(name = "member_id")
+    private Long memberId;
+
+    private String username;
+
+    @Column(name = "username_lower")
+    private String usernameLower;
+
+    private int age;
+
+    @Column(name = "team_id")
+    private Long teamId;
+
+    @Column(name = "team_name")
+    private String teamName;
+
+}
@@ -2,9 +2,19 @@ package study.querydsl.entity;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.OptimisticLock;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import study.querydsl.support.ConfiguredSequenceGenerator;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -14,17 +24,29 @@ import java.util.List;
 @Setter // 실무에서 Entity에 setter의 사용은 비권장함
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
+@Table(indexes = @Index(name = "idx_team_name", columnList = "name"))
 public class Team {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
+    @GenericGenerator(name = "team_seq_generator", type = ConfiguredSequenceGenerator.class, parameters = {
+            @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "team_seq"),
+            @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "20")})
     private Long id;
 
     private String name;
 
+    /* 회원의 팀 이동은 member 의 version 으로만 충돌을 검사하고, 팀 row 의 version 은 올리지 않는다 */
+    /* 여러 팀의 members 를 순회할 때 팀마다 조회하지 않고, 초기화되지 않은 컬렉션을 최대 100개씩 in 절로 묶어서 조회한다 */
+    @OptimisticLock(excluded = true)
+    @BatchSize(size = 100)
     @OneToMany(mappedBy = "team")
     private List<Member> members = new ArrayList<>();
 
+    @Version
+    @Setter(AccessLevel.NONE)
+    private Long version;
+
     public Team(String name) {
         this.name = name;
     }
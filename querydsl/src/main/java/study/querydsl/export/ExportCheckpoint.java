@@ -0,0 +1,62 @@
+package study.querydsl.export;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * 마지막으로 fsync 까지 끝난 row group 의 위치
+ * 임시 파일에 쓴 후 원자적으로 교체하므로, 중간에 프로세스가 죽어도 이전 체크포인트나 새 체크포인트 중 하나는 온전히 남는다.
+ *
+ * @param lastMemberId 마지막으로 기록한 member id (다음 청크는 이보다 큰 id 부터 조회)
+ * @param rows         지금까지 기록한 행 수
+ * @param position     데이터 파일에서 유효한 바이트 수 (재시작 시 이 위치로 truncate)
+ * @param completed    전체 export 가 끝났는 지 여부
+ */
+public record ExportCheckpoint(long lastMemberId, long rows, long position, boolean completed) {
+
+    public static ExportCheckpoint initial() {
+        return new ExportCheckpoint(0L, 0L, MemberExportFormat.FILE_HEADER_SIZE, false);
+    }
+
+    public static ExportCheckpoint load(Path file) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new ExportCheckpoint(
+                Long.parseLong(properties.getProperty("lastMemberId")),
+                Long.parseLong(properties.getProperty("rows")),
+                Long.parseLong(properties.getProperty("position")),
+                Boolean.parseBoolean(properties.getProperty("completed")));
+    }
+
+    public void save(Path file) {
+        Properties properties = new Properties();
+        properties.setProperty("lastMemberId", String.valueOf(lastMemberId));
+        properties.setProperty("rows", String.valueOf(rows));
+        properties.setProperty("position", String.valueOf(position));
+        properties.setProperty("completed", String.valueOf(completed));
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                properties.store(writer, "member export checkpoint");
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package study.querydsl.export;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 실행 중인 export 의 진행 상황 (REST 응답으로 그대로 사용)
+ */
+@Getter
+public class ExportProgress {
+
+    public enum State {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    private final String name;
+    @Getter(AccessLevel.NONE)
+    private final ExportCheckpoint resumedFrom;
+    private final long startedAt = System.currentTimeMillis();
+    private final long resumedFromMemberId;
+    private final long resumedRows;
+    private volatile State state = State.RUNNING;
+    private volatile String error;
+    private volatile long lastMemberId;
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private volatile long finishedAt;
+
+    ExportProgress(String name, ExportCheckpoint checkpoint) {
+        this.name = name;
+        this.resumedFrom = checkpoint;
+        this.resumedFromMemberId = checkpoint.lastMemberId();
+        this.resumedRows = checkpoint.rows();
+        this.lastMemberId = checkpoint.lastMemberId();
+        this.rows.set(checkpoint.rows());
+        this.bytes.set(checkpoint.position());
+    }
+
+    /* 이어서 진행할 체크포인트 (REST 응답에는 포함하지 않는다) */
+    ExportCheckpoint resumedFrom() {
+        return resumedFrom;
+    }
+
+    public long getRows() {
+        return rows.get();
+    }
+
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    /**
+     * 이번 실행에서 기록한 행 기준의 처리량 (재시작 이전에 기록한 행은 제외)
+     */
+    public double getRowsPerSecond() {
+        long end = finishedAt > 0 ? finishedAt : System.currentTimeMillis();
+        long elapsed = Math.max(1, end - startedAt);
+        return (rows.get() - resumedRows) * 1000.0 / elapsed;
+    }
+
+    void chunkWritten(long lastMemberId, int rowCount, long position) {
+        this.lastMemberId = lastMemberId;
+        this.rows.addAndGet(rowCount);
+        this.bytes.set(position);
+    }
+
+    void completed() {
+        this.finishedAt = System.currentTimeMillis();
+        this.state = State.COMPLETED;
+    }
+
+    void failed(Throwable cause) {
+        this.finishedAt = System.currentTimeMillis();
+        this.error = String.valueOf(cause.getMessage());
+        this.state = State.FAILED;
+    }
+}
@@ -0,0 +1,15 @@
+package study.querydsl.export;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 파일 이름으로 사용할 수 없는 export 이름
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidExportNameException extends RuntimeException {
+
+    public InvalidExportNameException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,191 @@
+package study.querydsl.export;
+
+import study.querydsl.dto.MemberTeamDTO;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * MemberTeamDTO 스냅샷 파일 포맷 (컬럼 단위로 묶은 row group 을 deflate 로 압축)
+ *
+ * <pre>
+ * file      := MAGIC(int) VERSION(int) rowGroup*
+ * rowGroup  := rowCount(int) rawLength(int) compressedLength(int) deflate(columns)
+ * columns   := memberId(long * n) age(int * n) teamId(long * n) username(string * n) teamName(string * n)
+ * string    := length(int, null 이면 -1) utf8 bytes
+ * </pre>
+ * teamId 가 없으면 NO_TEAM 을 기록한다.
+ */
+public final class MemberExportFormat {
+
+    public static final int MAGIC = 0x4D54_4443; // "MTDC"
+    public static final int VERSION = 1;
+    public static final int FILE_HEADER_SIZE = 8;
+    public static final int ROW_GROUP_HEADER_SIZE = 12;
+
+    private static final long NO_TEAM = -1L;
+
+    private MemberExportFormat() {
+    }
+
+    public static ByteBuffer fileHeader() {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).flip();
+        return header;
+    }
+
+    /**
+     * row group 하나를 (헤더 + 압축된 컬럼) 바이트 배열로 만든다.
+     */
+    public static byte[] encodeRowGroup(List<MemberTeamDTO> rows, Deflater deflater) {
+        byte[] raw = encodeColumns(rows);
+        deflater.reset();
+        deflater.setInput(raw);
+        deflater.finish();
+        byte[] compressed = new byte[raw.length + 64];
+        int compressedLength = 0;
+        while (!deflater.finished()) {
+            if (compressedLength == compressed.length) {
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            }
+            compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+        }
+
+        ByteBuffer group = ByteBuffer.allocate(ROW_GROUP_HEADER_SIZE + compressedLength);
+        group.putInt(rows.size()).putInt(raw.length).putInt(compressedLength);
+        group.put(compressed, 0, compressedLength);
+        return group.array();
+    }
+
+    /**
+     * 파일 전체를 읽어서 행 단위로 돌려준다. (검증, 분석 도구용)
+     */
+    public static long read(Path file, Consumer<MemberTeamDTO> consumer) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+            readFully(channel, header);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IllegalStateException("not a member export file: " + file);
+            }
+
+            long rows = 0;
+            Inflater inflater = new Inflater();
+            ByteBuffer groupHeader = ByteBuffer.allocate(ROW_GROUP_HEADER_SIZE);
+            while (channel.position() < channel.size()) {
+                groupHeader.clear();
+                readFully(channel, groupHeader);
+                int rowCount = groupHeader.getInt();
+                int rawLength = groupHeader.getInt();
+                int compressedLength = groupHeader.getInt();
+
+                ByteBuffer compressed = ByteBuffer.allocate(compressedLength);
+                readFully(channel, compressed);
+                byte[] raw = new byte[rawLength];
+                inflater.reset();
+                inflater.setInput(compressed.array());
+                inflater.inflate(raw);
+                decodeColumns(raw, rowCount, consumer);
+                rows += rowCount;
+            }
+            inflater.end();
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("corrupted member export file: " + file, e);
+        }
+    }
+
+    private static byte[] encodeColumns(List<MemberTeamDTO> rows) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(rows.size() * 48);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (MemberTeamDTO row : rows) {
+                out.writeLong(row.getMemberId());
+            }
+            for (MemberTeamDTO row : rows) {
+                out.writeInt(row.getAge());
+            }
+            for (MemberTeamDTO row : rows) {
+                out.writeLong(row.getTeamId() != null ? row.getTeamId() : NO_TEAM);
+            }
+            for (MemberTeamDTO row : rows) {
+                writeString(out, row.getUsername());
+            }
+            for (MemberTeamDTO row : rows) {
+                writeString(out, row.getTeamName());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void decodeColumns(byte[] raw, int rowCount, Consumer<MemberTeamDTO> consumer) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(raw));
+        long[] memberIds = new long[rowCount];
+        int[] ages = new int[rowCount];
+        long[] teamIds = new long[rowCount];
+        String[] usernames = new String[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            memberIds[i] = in.readLong();
+        }
+        for (int i = 0; i < rowCount; i++) {
+            ages[i] = in.readInt();
+        }
+        for (int i = 0; i < rowCount; i++) {
+            teamIds[i] = in.readLong();
+        }
+        for (int i = 0; i < rowCount; i++) {
+            usernames[i] = readString(in);
+        }
+        for (int i = 0; i < rowCount; i++) {
+            String teamName = readString(in);
+            Long teamId = teamIds[i] != NO_TEAM ? teamIds[i] : null;
+            consumer.accept(new MemberTeamDTO(memberIds[i], usernames[i], ages[i], teamId, teamName));
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IllegalStateException("unexpected end of member export file");
+            }
+        }
+        buffer.flip();
+    }
+}
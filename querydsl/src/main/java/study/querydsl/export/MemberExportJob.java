@@ -0,0 +1,264 @@
+package study.querydsl.export;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.dto.QMemberTeamDTO;
+import study.querydsl.tenant.TenantContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * member left join team 결과를 스냅샷 파일로 내보내는 작업
+ * - offset 페이징 대신 member.id 기준 keyset 으로 청크를 나누어 결과를 한 번만 훑는다.
+ * - 청크마다 컬럼 단위 row group 으로 압축해서 FileChannel 에 큰 버퍼 단위로 기록한다.
+ * - checkpointInterval 개의 row group 마다 fsync 한 후 체크포인트(마지막 id, 파일 위치)를 남기므로,
+ *   중간에 죽으면 마지막 체크포인트부터 이어서 진행한다.
+ * - export 는 요청한 tenant 의 회원을 내보낸다. 기본 tenant 는 member.export.dir 에, 나머지 tenant 는
+ *   member.export.dir/{tenant} 에 파일을 두고, 같은 이름이라도 tenant 가 다르면 다른 export 다.
+ */
+@Slf4j
+@Component
+public class MemberExportJob {
+
+    private static final Pattern NAME_PATTERN = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+    private static final int WRITE_BUFFER_SIZE = 4 * 1024 * 1024;
+
+    private final JPAQueryFactory queryFactory;
+    private final Path directory;
+    private final int chunkSize;
+    private final int checkpointInterval;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "member-export");
+        thread.setDaemon(true);
+        return thread;
+    });
+    /* key: tenant/name */
+    private final Map<String, ExportProgress> jobs = new ConcurrentHashMap<>();
+
+    public MemberExportJob(EntityManager em,
+                           @Value("${member.export.dir:build/exports}") String directory,
+                           @Value("${member.export.chunk-size:10000}") int chunkSize,
+                           @Value("${member.export.checkpoint-interval:8}") int checkpointInterval) {
+        this.queryFactory = new JPAQueryFactory(em);
+        this.directory = Paths.get(directory);
+        this.chunkSize = chunkSize;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * export 를 백그라운드에서 시작한다. 이전에 중단된 같은 이름의 export 가 있으면 이어서 진행한다.
+     * 같은 이름의 export 가 이미 실행 중이면 새로 시작하지 않고 실행 중인 진행 상황을 반환한다.
+     */
+    public ExportProgress start(String name) {
+        checkName(name);
+        String tenant = TenantContext.current();
+        Path tenantDirectory = directory(tenant);
+        /* 확인과 시작을 같은 key 의 compute 안에서 해서 동시에 요청해도 한 번만 시작한다 */
+        return jobs.compute(key(tenant, name), (key, running) -> {
+            if (isRunning(running)) {
+                return running;
+            }
+            ExportProgress progress = new ExportProgress(name, resumeCheckpoint(tenantDirectory, name));
+            executor.submit(() -> TenantContext.run(tenant, () ->
+                    run(tenantDirectory, name, progress.resumedFrom(), progress)));
+            return progress;
+        });
+    }
+
+    /**
+     * 현재 스레드에서 export 를 끝까지 실행한다.
+     * @throws IllegalStateException 같은 이름의 export 가 이미 실행 중인 경우
+     */
+    public ExportProgress runNow(String name) {
+        checkName(name);
+        String tenant = TenantContext.current();
+        Path tenantDirectory = directory(tenant);
+        ExportProgress progress = jobs.compute(key(tenant, name), (key, running) -> {
+            if (isRunning(running)) {
+                throw new IllegalStateException("member export '" + name + "' is already running");
+            }
+            return new ExportProgress(name, resumeCheckpoint(tenantDirectory, name));
+        });
+        run(tenantDirectory, name, progress.resumedFrom(), progress);
+        return progress;
+    }
+
+    public Optional<ExportProgress> progress(String name) {
+        return Optional.ofNullable(jobs.get(key(TenantContext.current(), name)));
+    }
+
+    /**
+     * 현재 스레드의 tenant 가 내보낸 파일
+     */
+    public Path dataFile(String name) {
+        return dataFile(directory(TenantContext.current()), name);
+    }
+
+    private Path directory(String tenant) {
+        return TenantContext.isDefault(tenant) ? directory : directory.resolve(tenant);
+    }
+
+    private static String key(String tenant, String name) {
+        return tenant + "/" + name;
+    }
+
+    private static Path dataFile(Path directory, String name) {
+        return directory.resolve(name + ".mtdc");
+    }
+
+    private static Path checkpointFile(Path directory, String name) {
+        return directory.resolve(name + ".checkpoint");
+    }
+
+    private static boolean isRunning(ExportProgress progress) {
+        return progress != null && progress.getState() == ExportProgress.State.RUNNING;
+    }
+
+    /* 완료된 export 를 다시 요청하면 처음부터 새로 만든다 */
+    private static ExportCheckpoint resumeCheckpoint(Path directory, String name) {
+        ExportCheckpoint checkpoint = ExportCheckpoint.load(checkpointFile(directory, name));
+        if (checkpoint == null || checkpoint.completed() || !Files.exists(dataFile(directory, name))) {
+            return ExportCheckpoint.initial();
+        }
+        return checkpoint;
+    }
+
+    private void run(Path tenantDirectory, String name, ExportCheckpoint checkpoint, ExportProgress progress) {
+        try {
+            Files.createDirectories(tenantDirectory);
+            export(tenantDirectory, name, checkpoint, progress);
+            progress.completed();
+            log.info("member export '{}' completed: {} rows, {} bytes, {} rows/s",
+                    name, progress.getRows(), progress.getBytes(), (long) progress.getRowsPerSecond());
+        } catch (RuntimeException | IOException e) {
+            log.error("member export '{}' failed at member id {}", name, progress.getLastMemberId(), e);
+            progress.failed(e);
+        }
+    }
+
+    private void export(Path tenantDirectory, String name, ExportCheckpoint checkpoint, ExportProgress progress) throws IOException {
+        Path checkpointFile = checkpointFile(tenantDirectory, name);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+
+        try (FileChannel channel = FileChannel.open(dataFile(tenantDirectory, name),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.READ)) {
+            if (checkpoint.lastMemberId() == 0L && checkpoint.rows() == 0L) {
+                channel.truncate(0);
+                channel.write(MemberExportFormat.fileHeader(), 0);
+            }
+            /* 체크포인트 이후에 기록된(fsync 가 보장되지 않은) 부분은 버린다 */
+            channel.truncate(checkpoint.position());
+            channel.position(checkpoint.position());
+
+            long lastId = checkpoint.lastMemberId();
+            long rows = checkpoint.rows();
+            int groupsSinceCheckpoint = 0;
+            while (true) {
+                List<MemberTeamDTO> chunk = fetchChunk(lastId);
+                if (chunk.isEmpty()) {
+                    break;
+                }
+                write(channel, buffer, MemberExportFormat.encodeRowGroup(chunk, deflater));
+                lastId = chunk.get(chunk.size() - 1).getMemberId();
+                rows += chunk.size();
+                progress.chunkWritten(lastId, chunk.size(), channel.position() + buffer.position());
+
+                if (++groupsSinceCheckpoint >= checkpointInterval) {
+                    checkpoint(channel, buffer, new ExportCheckpoint(lastId, rows, 0L, false), checkpointFile);
+                    groupsSinceCheckpoint = 0;
+                }
+                if (chunk.size() < chunkSize) {
+                    break;
+                }
+            }
+            checkpoint(channel, buffer, new ExportCheckpoint(lastId, rows, 0L, true), checkpointFile);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * 버퍼를 비우고 fsync 한 다음에 체크포인트를 남긴다. (position 은 실제 파일 위치로 채운다)
+     */
+    private static void checkpoint(FileChannel channel, ByteBuffer buffer,
+                                   ExportCheckpoint checkpoint, Path checkpointFile) throws IOException {
+        flush(channel, buffer);
+        channel.force(false);
+        new ExportCheckpoint(checkpoint.lastMemberId(), checkpoint.rows(), channel.position(), checkpoint.completed())
+                .save(checkpointFile);
+    }
+
+    private List<MemberTeamDTO> fetchChunk(long lastId) {
+        return queryFactory
+                .select(new QMemberTeamDTO(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(member.id.gt(lastId))
+                .orderBy(member.id.asc())
+                .limit(chunkSize)
+                .fetch();
+    }
+
+    private static void write(FileChannel channel, ByteBuffer buffer, byte[] bytes) throws IOException {
+        int offset = 0;
+        while (offset < bytes.length) {
+            if (!buffer.hasRemaining()) {
+                flush(channel, buffer);
+            }
+            int length = Math.min(buffer.remaining(), bytes.length - offset);
+            buffer.put(bytes, offset, length);
+            offset += length;
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void checkName(String name) {
+        if (!NAME_PATTERN.matcher(name).matches()) {
+            throw new InvalidExportNameException("invalid export name: " + name);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package study.querydsl.ingest;
+
+/**
+ * 일괄 등록 요청에 대한 응답 시점
+ * - ACCEPTED: 메모리 버퍼에 적재되면 바로 응답한다. 프로세스가 비정상 종료되면 아직 flush 되지 않은 요청은 유실될 수 있다.
+ * - DURABLE: 요청한 회원이 모두 DB 에 커밋된 후에 응답한다.
+ */
+public enum AckMode {
+    ACCEPTED,
+    DURABLE
+}
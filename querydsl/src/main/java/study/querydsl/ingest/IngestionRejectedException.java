@@ -0,0 +1,11 @@
+package study.querydsl.ingest;
+
+/**
+ * 버퍼가 가득 차서 제한 시간 내에 요청을 적재하지 못한 경우 (backpressure)
+ */
+public class IngestionRejectedException extends RuntimeException {
+
+    public IngestionRejectedException(String message) {
+        super(message);
+    }
+}
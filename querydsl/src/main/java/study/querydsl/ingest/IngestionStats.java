@@ -0,0 +1,11 @@
+package study.querydsl.ingest;
+
+public record IngestionStats(
+        long accepted,
+        long rejected,
+        long flushed,
+        long failed,
+        long batches,
+        int buffered,
+        int capacity) {
+}
@@ -0,0 +1,15 @@
+package study.querydsl.ingest;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 버퍼에 적재할 수 없는 요청 (버퍼 용량보다 많은 회원을 한 번에 요청한 경우 등)
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidIngestionRequestException extends RuntimeException {
+
+    public InvalidIngestionRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,272 @@
+package study.querydsl.ingest;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberCreateRequest;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.tenant.TenantContext;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * 회원 생성 요청을 메모리에 모아두었다가 batchSize 개가 모이거나 flushInterval 이 지나면
+ * 하나의 트랜잭션으로 묶어서 저장하는 write-behind 큐
+ * - 버퍼 용량은 Semaphore 로 관리하며, 용량이 부족하면 offerTimeout 만큼 기다린 후 요청을 거절한다.
+ * - submit 이 반환하는 future 는 요청한 회원이 모두 커밋되면 완료된다.
+ * - 배치 저장이 실패하면 반으로 나누어 다시 저장하므로, 잘못된 회원이 포함된 요청(ticket)만 실패하고 나머지는 저장된다.
+ *   실패한 요청의 다른 회원은 저장되었을 수 있다.
+ * - 요청한 스레드의 tenant 를 회원마다 기억해 두고, 배치를 tenant 별로 나누어 해당 tenant 로 저장한다.
+ */
+@Slf4j
+@Component
+public class MemberIngestionQueue {
+
+    private final EntityManager em;
+    private final TransactionTemplate transactionTemplate;
+
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalMillis;
+    private final long offerTimeoutMillis;
+
+    private final BlockingQueue<PendingMember> queue = new LinkedBlockingQueue<>();
+    private final Semaphore permits;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong flushed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    /* submit 은 running 확인과 적재를 read lock 안에서 하므로, stop 이 write lock 으로 running 을 끈 후에는 적재되는 요청이 없다 */
+    private final ReadWriteLock lifecycle = new ReentrantReadWriteLock();
+    private volatile boolean running;
+    private Thread flusher;
+
+    public MemberIngestionQueue(EntityManager em,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${member.ingest.capacity:10000}") int capacity,
+                                @Value("${member.ingest.batch-size:500}") int batchSize,
+                                @Value("${member.ingest.flush-interval-ms:200}") long flushIntervalMillis,
+                                @Value("${member.ingest.offer-timeout-ms:50}") long offerTimeoutMillis) {
+        this.em = em;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.permits = new Semaphore(capacity);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        flusher = new Thread(this::runFlusher, "member-ingest-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * 종료 시에는 버퍼에 남아 있는 요청을 모두 저장한 후 종료한다.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        lifecycle.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            lifecycle.writeLock().unlock();
+        }
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+        List<PendingMember> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        while (!remaining.isEmpty()) {
+            int end = Math.min(batchSize, remaining.size());
+            flush(new ArrayList<>(remaining.subList(0, end)));
+            remaining.subList(0, end).clear();
+        }
+    }
+
+    /**
+     * 요청 전체를 버퍼에 적재한다. 일부만 적재되는 경우는 없다.
+     *
+     * @throws IngestionRejectedException 버퍼에 여유 공간이 생기지 않는 경우
+     * @throws InvalidIngestionRequestException 버퍼 용량보다 많은 회원을 한 번에 요청한 경우
+     */
+    public CompletableFuture<Void> submit(List<MemberCreateRequest> requests) {
+        if (requests.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (requests.size() > capacity) {
+            throw new InvalidIngestionRequestException("too many members in one request: " + requests.size() + " > " + capacity);
+        }
+        if (!running) {
+            throw new IngestionRejectedException("ingestion queue is shutting down");
+        }
+        try {
+            if (!permits.tryAcquire(requests.size(), offerTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                rejected.addAndGet(requests.size());
+                throw new IngestionRejectedException("ingestion buffer is full");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IngestionRejectedException("interrupted while waiting for buffer space");
+        }
+
+        Ticket ticket = new Ticket(requests.size());
+        lifecycle.readLock().lock();
+        try {
+            if (!running) {
+                permits.release(requests.size());
+                throw new IngestionRejectedException("ingestion queue is shutting down");
+            }
+            for (MemberCreateRequest request : requests) {
+                queue.add(new PendingMember(request, TenantContext.current(), ticket));
+            }
+        } finally {
+            lifecycle.readLock().unlock();
+        }
+        accepted.addAndGet(requests.size());
+        return ticket.future;
+    }
+
+    public IngestionStats stats() {
+        return new IngestionStats(accepted.get(), rejected.get(), flushed.get(), failed.get(),
+                batches.get(), queue.size(), capacity);
+    }
+
+    private void runFlusher() {
+        while (running) {
+            try {
+                List<PendingMember> batch = nextBatch();
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("member ingestion flusher failed", e);
+            }
+        }
+    }
+
+    /**
+     * 첫 요청이 들어온 시점부터 flushInterval 동안, 최대 batchSize 개까지 모은다.
+     */
+    private List<PendingMember> nextBatch() throws InterruptedException {
+        List<PendingMember> batch = new ArrayList<>(batchSize);
+        PendingMember first = queue.poll(flushIntervalMillis, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return batch;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                break;
+            }
+            PendingMember next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    /* 한 배치에 여러 tenant 의 요청이 섞일 수 있으므로 tenant 별로 나누어 저장한다 */
+    private void flush(List<PendingMember> batch) {
+        try {
+            Map<String, List<PendingMember>> byTenant = batch.stream()
+                    .collect(Collectors.groupingBy(PendingMember::tenant, LinkedHashMap::new, Collectors.toList()));
+            byTenant.forEach((tenant, members) -> TenantContext.run(tenant, () -> persist(members)));
+        } finally {
+            permits.release(batch.size());
+        }
+    }
+
+    /**
+     * 배치 전체를 하나의 트랜잭션으로 저장하고, 실패하면 반으로 나누어 각각 다시 저장한다.
+     * 한 건만 남았는데도 실패하면 그 회원을 요청한 ticket 만 실패 처리한다.
+     * (잘못된 회원이 k 명이면 추가 트랜잭션은 최대 2k·log2(batchSize) 번)
+     */
+    private void persist(List<PendingMember> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (PendingMember pending : batch) {
+                    MemberCreateRequest request = pending.request();
+                    Member member = new Member(request.getUsername(), request.getAge());
+                    if (request.getTeamId() != null) {
+                        /* team.members 컬렉션을 초기화하지 않도록 연관관계의 주인(member.team)만 설정한다 */
+                        member.setTeam(em.getReference(Team.class, request.getTeamId()));
+                    }
+                    em.persist(member);
+                }
+                em.flush();
+                em.clear();
+            });
+            flushed.addAndGet(batch.size());
+            batches.incrementAndGet();
+            batch.forEach(pending -> pending.ticket().done());
+        } catch (RuntimeException e) {
+            if (batch.size() > 1) {
+                int half = batch.size() / 2;
+                persist(batch.subList(0, half));
+                persist(batch.subList(half, batch.size()));
+                return;
+            }
+            PendingMember pending = batch.get(0);
+            log.warn("failed to store member {}", pending.request().getUsername(), e);
+            failed.incrementAndGet();
+            pending.ticket().fail(e);
+        }
+    }
+
+    private record PendingMember(MemberCreateRequest request, String tenant, Ticket ticket) {
+    }
+
+    /**
+     * 하나의 submit 호출에 포함된 회원들이 모두 저장되었는 지를 추적한다.
+     */
+    private static final class Ticket {
+        private final AtomicInteger remaining;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private Ticket(int size) {
+            this.remaining = new AtomicInteger(size);
+        }
+
+        private void done() {
+            if (remaining.decrementAndGet() == 0) {
+                future.complete(null);
+            }
+        }
+
+        private void fail(Throwable cause) {
+            future.completeExceptionally(cause);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package study.querydsl.jfr;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * 현재 스레드에서 측정 중인 호출들의 SQL 수 / JDBC 시간 / flush 시간
+ * 컨트롤러 -> 리포지토리처럼 호출이 중첩되면, Hibernate 에서 보고한 값은 측정 중인 모든 호출에 더해진다.
+ */
+final class CallMetrics {
+
+    private static final ThreadLocal<Deque<CallMetrics>> ACTIVE = ThreadLocal.withInitial(ArrayDeque::new);
+
+    int sqlCount;
+    long jdbcNanos;
+    long flushNanos;
+    /* flush 중에 실행된 SQL 시간 (flushNanos 에 이미 포함됨) */
+    long flushJdbcNanos;
+
+    static CallMetrics begin() {
+        CallMetrics metrics = new CallMetrics();
+        ACTIVE.get().push(metrics);
+        return metrics;
+    }
+
+    static void end(CallMetrics metrics) {
+        Deque<CallMetrics> active = ACTIVE.get();
+        active.remove(metrics);
+        if (active.isEmpty()) {
+            ACTIVE.remove();
+        }
+    }
+
+    static boolean isActive() {
+        return !ACTIVE.get().isEmpty();
+    }
+
+    static void statement(long jdbcNanos, boolean duringFlush) {
+        for (CallMetrics metrics : ACTIVE.get()) {
+            metrics.sqlCount++;
+            metrics.jdbcNanos += jdbcNanos;
+            if (duringFlush) {
+                metrics.flushJdbcNanos += jdbcNanos;
+            }
+        }
+    }
+
+    /**
+     * 전체 시간에서 SQL 실행과 flush 시간을 뺀 나머지 (결과 매핑, 엔티티 hydration, DTO 생성)
+     */
+    long hydrationNanos(long durationNanos) {
+        return Math.max(0, durationNanos - flushNanos - (jdbcNanos - flushJdbcNanos));
+    }
+
+    static void flush(long flushNanos) {
+        for (CallMetrics metrics : ACTIVE.get()) {
+            metrics.flushNanos += flushNanos;
+        }
+    }
+}
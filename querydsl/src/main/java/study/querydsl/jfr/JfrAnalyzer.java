@@ -0,0 +1,93 @@
+package study.querydsl.jfr;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * .jfr 파일의 RepositoryCallEvent 를 (layer, operation, shape) 별로 요약한다.
+ * ./gradlew analyzeJfr -Pjfr=build/recording.jfr
+ */
+public class JfrAnalyzer {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("usage: JfrAnalyzer <recording.jfr>");
+            System.exit(2);
+        }
+        System.out.print(analyze(Paths.get(args[0])));
+    }
+
+    public static String analyze(Path recording) throws IOException {
+        Map<String, Summary> summaries = new LinkedHashMap<>();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                RecordedEvent event = file.readEvent();
+                if (!event.getEventType().getName().equals(RepositoryCallEvent.NAME)) {
+                    continue;
+                }
+                String key = event.getString("layer") + " " + event.getString("operation")
+                        + (event.getString("shape") != null ? " [" + event.getString("shape") + "]" : "");
+                summaries.computeIfAbsent(key, k -> new Summary()).add(event);
+            }
+        }
+
+        List<Map.Entry<String, Summary>> entries = new ArrayList<>(summaries.entrySet());
+        entries.sort(Comparator.comparingLong((Map.Entry<String, Summary> entry) -> entry.getValue().totalNanos).reversed());
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-90s %7s %10s %9s %9s %6s %8s %9s %9s %9s%n",
+                "call", "count", "total(ms)", "avg(ms)", "p99(ms)", "rows", "sql", "jdbc(ms)", "flush(ms)", "hydr(ms)"));
+        for (Map.Entry<String, Summary> entry : entries) {
+            Summary summary = entry.getValue();
+            report.append(String.format("%-90s %7d %10.1f %9.3f %9.3f %6.1f %8.1f %9.1f %9.1f %9.1f%n",
+                    entry.getKey(), summary.count, millis(summary.totalNanos), millis(summary.totalNanos) / summary.count,
+                    millis(summary.percentile(99)), (double) summary.rows / summary.count, (double) summary.sql / summary.count,
+                    millis(summary.jdbcNanos), millis(summary.flushNanos), millis(summary.hydrationNanos)));
+        }
+        return report.toString();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static class Summary {
+
+        private final List<Long> durations = new ArrayList<>();
+        private long count;
+        private long totalNanos;
+        private long rows;
+        private long sql;
+        private long jdbcNanos;
+        private long flushNanos;
+        private long hydrationNanos;
+
+        void add(RecordedEvent event) {
+            long duration = event.getDuration().toNanos();
+            durations.add(duration);
+            count++;
+            totalNanos += duration;
+            rows += event.getInt("rowCount");
+            sql += event.getInt("sqlCount");
+            jdbcNanos += event.getLong("jdbcTime");
+            flushNanos += event.getLong("flushTime");
+            hydrationNanos += event.getLong("hydrationTime");
+        }
+
+        long percentile(double percentile) {
+            Collections.sort(durations);
+            int index = (int) Math.ceil(percentile / 100.0 * durations.size()) - 1;
+            return durations.get(Math.max(0, index));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package study.querydsl.jfr;
+
+import com.querydsl.core.types.Predicate;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * MemberRepositoryImpl / MemberJpaRepository / MemberController 의 public 메서드 호출을 RepositoryCallEvent 로 기록한다.
+ * 이벤트가 비활성화되어 있으면(JFR 미실행 포함) isEnabled() 확인 외에는 아무것도 하지 않는다.
+ * WebAsyncTask 를 반환하는 컨트롤러 메서드는 반환 시점에 검색이 아직 시작되지 않았으므로 여기서 기록하지 않고,
+ * 검색을 실제로 실행하는 callable 안에서 recordAsync() 로 기록한다. (SearchTimeouts)
+ */
+@Aspect
+@Component
+public class JfrRepositoryAspect {
+
+    @Around("execution(public * study.querydsl.repository.MemberRepositoryImpl.*(..))")
+    public Object repositoryImpl(ProceedingJoinPoint joinPoint) throws Throwable {
+        return record("repository", joinPoint);
+    }
+
+    @Around("execution(public * study.querydsl.repository.MemberJpaRepository.*(..))")
+    public Object jpaRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return record("repository", joinPoint);
+    }
+
+    @Around("execution(public !org.springframework.web.context.request.async.WebAsyncTask "
+            + "study.querydsl.controller.MemberController.*(..))")
+    public Object controller(ProceedingJoinPoint joinPoint) throws Throwable {
+        return record("controller", joinPoint);
+    }
+
+    /**
+     * 비동기로 실행되는 컨트롤러 작업을 실행하는 스레드에서 기록한다.
+     * @param operation 이벤트의 operation (예: GET /v1/members)
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T recordAsync(String operation, Supplier<T> task) {
+        try {
+            return (T) record("controller", operation, new Object[0], task::get);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new UndeclaredThrowableException(e);
+        }
+    }
+
+    private static Object record(String layer, ProceedingJoinPoint joinPoint) throws Throwable {
+        return record(layer, joinPoint.getSignature().getDeclaringType().getSimpleName()
+                + "." + joinPoint.getSignature().getName(), joinPoint.getArgs(), joinPoint::proceed);
+    }
+
+    private static Object record(String layer, String operation, Object[] args, Invocation invocation) throws Throwable {
+        RepositoryCallEvent event = new RepositoryCallEvent();
+        if (!event.isEnabled()) {
+            return invocation.proceed();
+        }
+
+        CallMetrics metrics = CallMetrics.begin();
+        long start = System.nanoTime();
+        event.begin();
+        Object result = null;
+        try {
+            result = invocation.proceed();
+            return result;
+        } finally {
+            event.end();
+            long duration = System.nanoTime() - start;
+            CallMetrics.end(metrics);
+            if (event.shouldCommit()) {
+                event.layer = layer;
+                event.operation = operation;
+                event.shape = shape(args);
+                event.rowCount = rowCount(result);
+                event.sqlCount = metrics.sqlCount;
+                event.jdbcTime = metrics.jdbcNanos;
+                event.flushTime = metrics.flushNanos;
+                event.hydrationTime = metrics.hydrationNanos(duration);
+                event.commit();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Invocation {
+        Object proceed() throws Throwable;
+    }
+
+    private static String shape(Object[] args) {
+        for (Object arg : args) {
+            if (arg instanceof MemberSearchCondition condition) {
+                return condition.shape();
+            }
+            if (arg instanceof Predicate) {
+                return "predicate";
+            }
+        }
+        return null;
+    }
+
+    private static int rowCount(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        return result == null || result instanceof Number ? 0 : 1;
+    }
+}
@@ -0,0 +1,64 @@
+package study.querydsl.jfr;
+
+import org.hibernate.engine.spi.SessionEventListener;
+
+/**
+ * Hibernate 세션마다 생성되어 (hibernate.session.events.auto) SQL 실행 / flush 시간을 CallMetrics 에 보고한다.
+ * 측정 중인 호출이 없으면 아무것도 하지 않는다.
+ */
+public class JfrSessionEventListener implements SessionEventListener {
+
+    private long statementStart;
+    private long batchStart;
+    private long flushStart;
+    private boolean flushing;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        if (CallMetrics.isActive()) {
+            CallMetrics.statement(System.nanoTime() - statementStart, flushing);
+        }
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        if (CallMetrics.isActive()) {
+            CallMetrics.statement(System.nanoTime() - batchStart, flushing);
+        }
+    }
+
+    @Override
+    public void flushStart() {
+        flushStart = System.nanoTime();
+        flushing = true;
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        flushing = false;
+        if (CallMetrics.isActive()) {
+            CallMetrics.flush(System.nanoTime() - flushStart);
+        }
+    }
+
+    /* 쿼리 실행 전 자동 flush */
+    @Override
+    public void partialFlushStart() {
+        flushStart();
+    }
+
+    @Override
+    public void partialFlushEnd(int numberOfEntities, int numberOfCollections) {
+        flushEnd(numberOfEntities, numberOfCollections);
+    }
+}
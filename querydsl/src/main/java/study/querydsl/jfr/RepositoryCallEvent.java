@@ -0,0 +1,51 @@
+package study.querydsl.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * 리포지토리 / 컨트롤러 메서드 한 번의 호출
+ * JFR 이 꺼져 있거나 이 이벤트가 비활성화되어 있으면 측정 자체를 하지 않는다. (JfrRepositoryAspect)
+ */
+@Name(RepositoryCallEvent.NAME)
+@Label("Repository Call")
+@Category({"Querydsl", "Repository"})
+@Description("A call to a member repository or controller method")
+@StackTrace(false)
+public class RepositoryCallEvent extends jdk.jfr.Event {
+
+    public static final String NAME = "study.querydsl.RepositoryCall";
+
+    @Label("Layer")
+    public String layer;
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Condition Shape")
+    @Description("Which search filters were present (MemberSearchCondition.shape())")
+    public String shape;
+
+    @Label("Row Count")
+    public int rowCount;
+
+    @Label("SQL Count")
+    public int sqlCount;
+
+    @Label("JDBC Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long jdbcTime;
+
+    @Label("Flush Time")
+    @Timespan(Timespan.NANOSECONDS)
+    public long flushTime;
+
+    @Label("Hydration Time")
+    @Description("Call duration minus JDBC and flush time: result set mapping, entity hydration and DTO construction")
+    @Timespan(Timespan.NANOSECONDS)
+    public long hydrationTime;
+}
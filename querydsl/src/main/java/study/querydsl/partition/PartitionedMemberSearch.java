@@ -0,0 +1,239 @@
+package study.querydsl.partition;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.dto.QMemberTeamDTO;
+import study.querydsl.repository.MemberSort;
+import study.querydsl.support.DeadlineJPAQueryFactory;
+import study.querydsl.tenant.TenantContext;
+import study.querydsl.timeout.QueryDeadline;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.MemberConditions.usernameMatches;
+
+/**
+ * member 를 team_id 단위의 논리 파티션으로 나누어 검색한다.
+ * (H2 는 테이블 파티셔닝을 지원하지 않으므로, team_id 로 시작하는 인덱스(idx_member_team_age)가 파티션 역할을 한다)
+ * - teamName 조건이 있으면 팀 id 를 먼저 찾고, 해당 파티션만 조회한다. (partition pruning)
+ * - 팀 조건이 없으면 인덱스를 사용하는 쿼리 한 번(+ count)으로 조회한다.
+ *   논리 파티션은 같은 테이블이므로, 파티션마다 조회해서 합치면 2 * (팀 수 + 1) 번의 쿼리가 실행될 뿐 이득이 없다.
+ * - member.partition.scatter-gather=true 이면 (파티션이 실제로 물리적으로 나뉜 경우)
+ *   파티션마다 (offset + size) 개를 병렬로 조회한 후 요청한 정렬(MemberSort) 순으로 합친다. (scatter-gather)
+ *   파티션별로 별도의 읽기 전용 트랜잭션에서 실행되므로, 호출한 쪽 트랜잭션의 커밋되지 않은 변경은 보이지 않고
+ *   파티션마다 content 와 count 를 읽는 시점이 다를 수 있다.
+ * 호출한 스레드의 쿼리 시간 예산(QueryDeadline)과 tenant 는 파티션 조회에도 그대로 적용된다.
+ */
+@Component
+public class PartitionedMemberSearch {
+
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ExecutorService executor;
+    private final boolean scatterGather;
+
+    private final Counter prunedSearches;
+    private final Counter singleSearches;
+    private final Counter scatteredSearches;
+
+    public PartitionedMemberSearch(EntityManager em,
+                                   PlatformTransactionManager transactionManager,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${member.partition.parallelism:4}") int parallelism,
+                                   @Value("${member.partition.scatter-gather:false}") boolean scatterGather) {
+        this.queryFactory = new DeadlineJPAQueryFactory(em);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.scatterGather = scatterGather;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "member-partition-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.prunedSearches = Counter.builder("member.partition.searches")
+                .tag("mode", "pruned")
+                .description("member searches answered from a single team partition")
+                .register(meterRegistry);
+        this.singleSearches = Counter.builder("member.partition.searches")
+                .tag("mode", "single")
+                .description("member searches without a team condition answered by one indexed query")
+                .register(meterRegistry);
+        this.scatteredSearches = Counter.builder("member.partition.searches")
+                .tag("mode", "scatter")
+                .description("member searches fanned out to every team partition")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public Page<MemberTeamDTO> search(MemberSearchCondition condition, Pageable pageable) {
+        MemberSort sort = MemberSort.of(pageable.getSort());
+        if (!hasText(condition.getTeamName()) && !scatterGather) {
+            singleSearches.increment();
+            return readOnlyTransaction.execute(status -> searchOnce(null, condition, sort, pageable));
+        }
+        List<Partition> partitions = hasText(condition.getTeamName())
+                ? partitionsOf(condition.getTeamName())
+                : allPartitions();
+
+        if (partitions.isEmpty()) {
+            prunedSearches.increment();
+            return new PageImpl<>(List.of(), pageable, 0);
+        }
+        if (partitions.size() == 1 || !scatterGather) {
+            prunedSearches.increment();
+            BooleanExpression scope = partitions.size() == 1
+                    ? partitions.get(0).predicate()
+                    : member.team.id.in(partitions.stream().map(Partition::teamId).toList());
+            return readOnlyTransaction.execute(status -> searchOnce(scope, condition, sort, pageable));
+        }
+
+        scatteredSearches.increment();
+        /* 각 파티션의 앞쪽 (offset + size) 개만 있으면 합친 결과의 해당 페이지를 만들 수 있다 */
+        long limit = pageable.getOffset() + pageable.getPageSize();
+        List<CompletableFuture<PartitionResult>> futures = partitions.stream()
+                .map(partition -> CompletableFuture.supplyAsync(TenantContext.propagate(QueryDeadline.propagate(
+                        () -> readOnlyTransaction.execute(status -> new PartitionResult(
+                                fetch(partition.predicate(), condition, sort, 0, limit),
+                                count(partition.predicate(), condition))))), executor))
+                .toList();
+
+        List<MemberTeamDTO> merged = new ArrayList<>();
+        long total = 0;
+        for (CompletableFuture<PartitionResult> future : futures) {
+            PartitionResult result = join(future);
+            merged.addAll(result.content());
+            total += result.total();
+        }
+        List<MemberTeamDTO> content = merged.stream()
+                .sorted(sort.comparator())
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .toList();
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private Page<MemberTeamDTO> searchOnce(BooleanExpression scope, MemberSearchCondition condition,
+                                           MemberSort sort, Pageable pageable) {
+        List<MemberTeamDTO> content = fetch(scope, condition, sort, pageable.getOffset(), pageable.getPageSize());
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(scope, condition));
+    }
+
+    /**
+     * 같은 이름의 팀이 여러 개면 파티션도 여러 개가 된다.
+     */
+    private List<Partition> partitionsOf(String teamName) {
+        return queryFactory
+                .select(team.id)
+                .from(team)
+                .where(team.name.eq(teamName))
+                .fetch()
+                .stream()
+                .map(Partition::new)
+                .toList();
+    }
+
+    /* 팀이 없는 회원도 하나의 파티션(teamId = null)으로 취급한다 */
+    private List<Partition> allPartitions() {
+        List<Partition> partitions = new ArrayList<>();
+        for (Long teamId : queryFactory.select(team.id).from(team).fetch()) {
+            partitions.add(new Partition(teamId));
+        }
+        partitions.add(new Partition(null));
+        return partitions;
+    }
+
+    private List<MemberTeamDTO> fetch(BooleanExpression scope, MemberSearchCondition condition, MemberSort sort,
+                                      long offset, long limit) {
+        return queryFactory
+                .select(new QMemberTeamDTO(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(
+                        scope,
+                        usernameMatches(condition.getUsername(), condition.getUsernameMatch()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .orderBy(sort.orderSpecifiers())
+                .offset(offset)
+                .limit(limit)
+                .fetch();
+    }
+
+    /* 파티션(scope) 조건은 member.team_id 만으로 판단할 수 있으므로 count 쿼리에는 team 조인이 필요 없다 */
+    private long count(BooleanExpression scope, MemberSearchCondition condition) {
+        Long count = queryFactory
+                .select(member.count())
+                .from(member)
+                .where(
+                        scope,
+                        usernameMatches(condition.getUsername(), condition.getUsernameMatch()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .fetchOne();
+        return count != null ? count : 0;
+    }
+
+    private static PartitionResult join(CompletableFuture<PartitionResult> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+
+    private record Partition(Long teamId) {
+
+        BooleanExpression predicate() {
+            return teamId != null ? member.team.id.eq(teamId) : member.team.isNull();
+        }
+    }
+
+    private record PartitionResult(List<MemberTeamDTO> content, long total) {
+    }
+}
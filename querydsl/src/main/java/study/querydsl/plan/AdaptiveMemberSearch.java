@@ -0,0 +1,162 @@
+package study.querydsl.plan;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberNativeQuery;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.support.DeadlineJPAQueryFactory;
+import study.querydsl.timeout.QueryDeadline;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.MemberConditions.usernameMatches;
+
+/**
+ * 같은 회원 검색을 fetch join / DTO projection / native SQL 중 조건 shape 별로 가장 빨랐던 방법으로 실행한다.
+ * 어떤 plan 이 선택되어도 결과가 같도록, 모든 plan 은 같은 조건으로 member.id 순으로 조회한다.
+ * (MemberSearchCondition.shape(), PlanStats 참고)
+ * - member.search.plan (timer, tag: plan, shape) : plan 별 실행 시간
+ * - member.search.plan.decisions (counter, tag: plan, reason) : warmup / explore / exploit 선택 횟수
+ */
+@Component
+public class AdaptiveMemberSearch {
+
+    private static final int MAX_SHAPES = 256;
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final MemberRepository memberRepository;
+    private final MeterRegistry meterRegistry;
+
+    private final double alpha;
+    private final double explorationRate;
+    private final int warmupSamples;
+    private final Map<String, PlanStats> stats = new ConcurrentHashMap<>();
+
+    public AdaptiveMemberSearch(EntityManager em,
+                                MemberRepository memberRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${member.plan.alpha:0.2}") double alpha,
+                                @Value("${member.plan.exploration-rate:0.05}") double explorationRate,
+                                @Value("${member.plan.warmup-samples:3}") int warmupSamples) {
+        this.em = em;
+        this.queryFactory = new DeadlineJPAQueryFactory(em);
+        this.memberRepository = memberRepository;
+        this.meterRegistry = meterRegistry;
+        this.alpha = alpha;
+        this.explorationRate = explorationRate;
+        this.warmupSamples = warmupSamples;
+    }
+
+    @Transactional(readOnly = true)
+    public List<MemberTeamDTO> search(MemberSearchCondition condition) {
+        String shape = condition.shape();
+        PlanStats planStats = statsOf(shape);
+        PlanStats.Decision decision = planStats.choose(ThreadLocalRandom.current(), explorationRate, warmupSamples);
+
+        long start = System.nanoTime();
+        List<MemberTeamDTO> result = execute(decision.plan(), condition);
+        long elapsed = System.nanoTime() - start;
+
+        planStats.record(decision.plan(), elapsed);
+        meterRegistry.timer("member.search.plan", "plan", decision.plan().name(), "shape", shape)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        meterRegistry.counter("member.search.plan.decisions", "plan", decision.plan().name(), "reason", decision.reason())
+                .increment();
+        return result;
+    }
+
+    /**
+     * shape -> plan 별 평균 실행 시간(ms)
+     */
+    public Map<String, Map<QueryPlan, Double>> statistics() {
+        Map<String, Map<QueryPlan, Double>> snapshot = new TreeMap<>();
+        stats.forEach((shape, planStats) -> snapshot.put(shape, planStats.averageMillis()));
+        return snapshot;
+    }
+
+    public QueryPlan preferredPlan(MemberSearchCondition condition) {
+        PlanStats planStats = stats.get(condition.shape());
+        return planStats != null ? planStats.best() : QueryPlan.DTO_PROJECTION;
+    }
+
+    List<MemberTeamDTO> execute(QueryPlan plan, MemberSearchCondition condition) {
+        return switch (plan) {
+            case FETCH_JOIN -> searchByFetchJoin(condition);
+            case DTO_PROJECTION -> memberRepository.search(condition);
+            case NATIVE_SQL -> searchByNativeSql(condition);
+        };
+    }
+
+    /* shape 는 조건 조합 수만큼만 생기지만, 혹시 모를 증가를 막기 위해 상한을 둔다 */
+    private PlanStats statsOf(String shape) {
+        PlanStats planStats = stats.get(shape);
+        if (planStats != null) {
+            return planStats;
+        }
+        if (stats.size() >= MAX_SHAPES) {
+            return new PlanStats(alpha);
+        }
+        return stats.computeIfAbsent(shape, key -> new PlanStats(alpha));
+    }
+
+    private List<MemberTeamDTO> searchByFetchJoin(MemberSearchCondition condition) {
+        List<Member> members = queryFactory
+                .selectFrom(member)
+                .leftJoin(member.team, team).fetchJoin()
+                .where(
+                        usernameMatches(condition.getUsername(), condition.getUsernameMatch()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .orderBy(member.id.asc())
+                .fetch();
+        return members.stream()
+                .map(found -> {
+                    Team memberTeam = found.getTeam();
+                    return new MemberTeamDTO(found.getId(), found.getUsername(), found.getAge(),
+                            memberTeam != null ? memberTeam.getId() : null,
+                            memberTeam != null ? memberTeam.getName() : null);
+                })
+                .toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<MemberTeamDTO> searchByNativeSql(MemberSearchCondition condition) {
+        MemberNativeQuery nativeQuery = MemberNativeQuery.of(condition);
+        List<Object[]> rows = QueryDeadline.applyTo(nativeQuery.bind(em.createNativeQuery(nativeQuery.sql()))).getResultList();
+        return rows.stream()
+                .map(MemberNativeQuery::toDTO)
+                .toList();
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        return hasText(teamName) ? team.name.eq(teamName) : null;
+    }
+
+    private BooleanExpression ageGoe(Integer ageGoe) {
+        return ageGoe != null ? member.age.goe(ageGoe) : null;
+    }
+
+    private BooleanExpression ageLoe(Integer ageLoe) {
+        return ageLoe != null ? member.age.loe(ageLoe) : null;
+    }
+}
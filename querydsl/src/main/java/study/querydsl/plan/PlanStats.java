@@ -0,0 +1,70 @@
+package study.querydsl.plan;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * 검색 조건 shape 하나에 대한 plan 별 실행 시간 통계 (지수 이동 평균)
+ */
+class PlanStats {
+
+    private static final QueryPlan[] PLANS = QueryPlan.values();
+
+    private final double alpha;
+    private final double[] averageNanos = new double[PLANS.length];
+    private final long[] samples = new long[PLANS.length];
+
+    PlanStats(double alpha) {
+        this.alpha = alpha;
+    }
+
+    /**
+     * 1. 표본이 warmupSamples 개보다 적은 plan 이 있으면 그 plan 을 먼저 실행한다.
+     * 2. explorationRate 확률로 임의의 plan 을 실행한다. (데이터가 바뀌어서 다른 plan 이 빨라졌는지 확인)
+     * 3. 그 외에는 평균 실행 시간이 가장 짧은 plan 을 실행한다.
+     */
+    synchronized Decision choose(RandomGenerator random, double explorationRate, int warmupSamples) {
+        for (QueryPlan plan : PLANS) {
+            if (samples[plan.ordinal()] < warmupSamples) {
+                return new Decision(plan, "warmup");
+            }
+        }
+        if (random.nextDouble() < explorationRate) {
+            return new Decision(PLANS[random.nextInt(PLANS.length)], "explore");
+        }
+        return new Decision(best(), "exploit");
+    }
+
+    synchronized void record(QueryPlan plan, long elapsedNanos) {
+        int index = plan.ordinal();
+        averageNanos[index] = samples[index] == 0
+                ? elapsedNanos
+                : alpha * elapsedNanos + (1 - alpha) * averageNanos[index];
+        samples[index]++;
+    }
+
+    synchronized QueryPlan best() {
+        QueryPlan best = QueryPlan.DTO_PROJECTION;
+        for (QueryPlan plan : PLANS) {
+            if (samples[plan.ordinal()] > 0
+                    && (samples[best.ordinal()] == 0 || averageNanos[plan.ordinal()] < averageNanos[best.ordinal()])) {
+                best = plan;
+            }
+        }
+        return best;
+    }
+
+    synchronized Map<QueryPlan, Double> averageMillis() {
+        Map<QueryPlan, Double> averages = new EnumMap<>(QueryPlan.class);
+        for (QueryPlan plan : PLANS) {
+            if (samples[plan.ordinal()] > 0) {
+                averages.put(plan, averageNanos[plan.ordinal()] / 1_000_000.0);
+            }
+        }
+        return averages;
+    }
+
+    record Decision(QueryPlan plan, String reason) {
+    }
+}
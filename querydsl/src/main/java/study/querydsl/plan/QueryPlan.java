@@ -0,0 +1,13 @@
+package study.querydsl.plan;
+
+/**
+ * 같은 회원 검색 결과(MemberTeamDTO)를 만드는 실행 방법
+ */
+public enum QueryPlan {
+    /* select member join fetch team -> 엔티티를 DTO 로 변환 */
+    FETCH_JOIN,
+    /* QMemberTeamDTO 로 필요한 컬럼만 조회 */
+    DTO_PROJECTION,
+    /* MemberNativeQuery 로 만든 SQL 을 그대로 실행 */
+    NATIVE_SQL
+}
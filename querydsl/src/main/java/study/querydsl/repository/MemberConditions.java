@@ -0,0 +1,43 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.StringPath;
+import study.querydsl.dto.UsernameMatch;
+import study.querydsl.entity.Member;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 여러 검색 경로(repository, 적응형 / 파티션 검색)가 함께 쓰는 회원 검색 조건
+ * 조건 값이 비어 있으면 null 을 반환하므로 where 에서 무시된다.
+ */
+public final class MemberConditions {
+
+    private MemberConditions() {
+    }
+
+    public static BooleanExpression usernameMatches(String username, UsernameMatch match) {
+        return usernameMatches(member.username, member.usernameLower, username, match);
+    }
+
+    /**
+     * username / username_lower 컬럼을 함께 가진 테이블(member, member_team_view)에 쓰는 username 검색 조건
+     * 정규화된 username_lower 컬럼을 비교해야 lower(username) 과 달리 인덱스를 사용할 수 있다.
+     */
+    public static BooleanExpression usernameMatches(StringPath usernamePath, StringPath usernameLowerPath,
+                                                    String username, UsernameMatch match) {
+        if (username == null || username.isBlank()) {
+            return null;
+        }
+        if (match == null || match == UsernameMatch.EXACT) {
+            return usernamePath.eq(username);
+        }
+        String normalized = Member.normalizeUsername(username);
+        return switch (match) {
+            case IGNORE_CASE -> usernameLowerPath.eq(normalized);
+            case PREFIX -> usernameLowerPath.startsWith(normalized);
+            case CONTAINS -> usernameLowerPath.contains(normalized);
+            default -> usernamePath.eq(username);
+        };
+    }
+}
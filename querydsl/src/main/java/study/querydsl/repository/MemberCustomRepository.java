@@ -1,16 +1,26 @@
 package study.querydsl.repository;
 
+import com.querydsl.core.types.Predicate;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.dto.UsernameMatch;
 
 import java.util.List;
 
 public interface MemberCustomRepository {
 
     List<MemberTeamDTO> search(MemberSearchCondition condition);
+    List<MemberTeamDTO> searchByUsername(String username, UsernameMatch match);
+    List<MemberTeamDTO> searchByUsernameFragment(String fragment, int limit);
+    <T> List<T> findProjected(MemberSearchCondition condition, Class<T> type);
+    <T> List<T> findProjected(Predicate predicate, Class<T> type);
     Page<MemberTeamDTO> searchWithPageSimple(MemberSearchCondition condition, Pageable pageable);
     Page<MemberTeamDTO> searchWithPageComplex(MemberSearchCondition condition, Pageable pageable);
+    Page<MemberTeamDTO> searchByPredicate(Predicate predicate, Pageable pageable);
+    List<MemberTeamDTO> searchFromView(MemberSearchCondition condition);
+    Page<MemberTeamDTO> searchFromViewWithPage(MemberSearchCondition condition, Pageable pageable);
+    long forEachRow(MemberSearchCondition condition, MemberRowConsumer consumer);
 
 }
@@ -3,29 +3,49 @@ package study.querydsl.repository;
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDTO;
 import study.querydsl.dto.QMemberTeamDTO;
 import study.querydsl.entity.Member;
+import study.querydsl.search.InvalidSearchException;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.springframework.util.StringUtils.*;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.*;
+import static study.querydsl.repository.MemberConditions.usernameMatches;
 
 @Repository
 public class MemberJpaRepository {
 
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final MeterRegistry meterRegistry;
+    private final int lookupBatchSize;
+    private final int lookupMaxKeys;
 
-    public MemberJpaRepository(EntityManager em) {
+    public MemberJpaRepository(EntityManager em,
+                               MeterRegistry meterRegistry,
+                               @Value("${member.lookup.batch-size:100}") int lookupBatchSize,
+                               @Value("${member.lookup.max-keys:1000}") int lookupMaxKeys) {
         this.em = em;
         this.queryFactory = new JPAQueryFactory(em);
+        this.meterRegistry = meterRegistry;
+        this.lookupBatchSize = lookupBatchSize;
+        this.lookupMaxKeys = lookupMaxKeys;
     }
 
     public void save(Member member) {
@@ -68,10 +88,91 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
+    /**
+     * 여러 id 를 한 번에 조회한다.
+     * 영속성 컨텍스트에 이미 있는 엔티티는 제외하고, 나머지를 lookupBatchSize 개씩 in 절로 묶어서 조회한다.
+     */
+    @Transactional(readOnly = true)
+    public List<Member> findAllByIds(Collection<Long> ids) {
+        List<Long> keys = distinct(ids);
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        return countingStatements("id", keys.size(), () -> em.unwrap(Session.class)
+                .byMultipleIds(Member.class)
+                .withBatchSize(lookupBatchSize)
+                .enableSessionCheck(true)
+                .enableOrderedReturn(false)
+                .multiLoad(keys));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Member> findAllByUsernames(Collection<String> usernames) {
+        List<String> keys = distinct(usernames);
+        return countingStatements("username", keys.size(), () -> {
+            List<Member> result = new ArrayList<>();
+            for (List<String> chunk : chunks(keys)) {
+                result.addAll(queryFactory
+                        .selectFrom(member)
+                        .where(member.username.in(chunk))
+                        .fetch());
+            }
+            return result;
+        });
+    }
+
+    /**
+     * id 또는 username 이 일치하는 회원을 팀 정보와 함께 조회한다. (POST /members/lookup)
+     * 청크별 쿼리가 같은 세션에서 실행되어야 실제 실행된 SQL 수를 셀 수 있으므로 하나의 읽기 전용 트랜잭션으로 묶는다.
+     *
+     * @throws InvalidSearchException 중복을 포함한 id, username 수의 합이 member.lookup.max-keys 보다 많은 경우
+     */
+    @Transactional(readOnly = true)
+    public List<MemberTeamDTO> lookup(Collection<Long> ids, Collection<String> usernames) {
+        int requested = (ids == null ? 0 : ids.size()) + (usernames == null ? 0 : usernames.size());
+        if (requested > lookupMaxKeys) {
+            throw new InvalidSearchException("too many lookup keys in one request: " + requested + " > " + lookupMaxKeys);
+        }
+        List<Long> idKeys = distinct(ids);
+        List<String> usernameKeys = distinct(usernames);
+        if (idKeys.isEmpty() && usernameKeys.isEmpty()) {
+            return List.of();
+        }
+
+        List<List<Long>> idChunks = chunks(idKeys);
+        List<List<String>> usernameChunks = chunks(usernameKeys);
+        List<MemberTeamDTO> result = countingStatements("dto", idKeys.size() + usernameKeys.size(), () -> {
+            List<MemberTeamDTO> rows = new ArrayList<>();
+            for (int i = 0; i < Math.max(idChunks.size(), usernameChunks.size()); i++) {
+                BooleanBuilder builder = new BooleanBuilder();
+                if (i < idChunks.size()) {
+                    builder.or(member.id.in(idChunks.get(i)));
+                }
+                if (i < usernameChunks.size()) {
+                    builder.or(member.username.in(usernameChunks.get(i)));
+                }
+                rows.addAll(queryFactory
+                        .select(new QMemberTeamDTO(
+                                member.id.as("memberId"),
+                                member.username,
+                                member.age,
+                                team.id.as("teamId"),
+                                team.name.as("teamName")))
+                        .from(member)
+                        .leftJoin(member.team, team)
+                        .where(builder)
+                        .fetch());
+            }
+            return rows;
+        });
+        /* 서로 다른 청크에서 같은 회원이 조회될 수 있으므로 중복을 제거한다 */
+        return result.stream().distinct().toList();
+    }
+
     public List<MemberTeamDTO> searchByBuilder(MemberSearchCondition memberSearchCondition) {
         BooleanBuilder builder = new BooleanBuilder();
         if (hasText(memberSearchCondition.getUsername())) {
-            builder.and(member.username.eq(memberSearchCondition.getUsername()));
+            builder.and(usernameMatches(memberSearchCondition.getUsername(), memberSearchCondition.getUsernameMatch()));
         }
         if (hasText(memberSearchCondition.getTeamName())) {
             builder.and(team.name.eq(memberSearchCondition.getTeamName()));
@@ -107,7 +208,7 @@ public class MemberJpaRepository {
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(
-                        usernameEq(condition.getUsername()),
+                        usernameMatches(condition.getUsername(), condition.getUsernameMatch()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
@@ -115,8 +216,36 @@ public class MemberJpaRepository {
                 .fetch();
     }
 
-    private BooleanExpression usernameEq(String username) {
-        return hasText(username) ? member.username.eq(username) : null;
+    /**
+     * lookup 을 실행하는 동안 실제로 실행된 SQL 수를 세어서 (StatementCounter),
+     * 키 하나씩 조회했다면 keys 번 발생했을 DB 왕복 중 절약한 횟수를 기록한다.
+     * (영속성 컨텍스트에 이미 있어서 조회하지 않은 키는 왕복 0 번으로 센다)
+     */
+    private <T> T countingStatements(String keyType, int keys, Supplier<T> lookup) {
+        return StatementCounter.count(lookup, roundTrips -> recordLookup(keyType, keys, roundTrips));
+    }
+
+    private void recordLookup(String keyType, int keys, int roundTrips) {
+        meterRegistry.counter("member.lookup.keys", "key", keyType).increment(keys);
+        meterRegistry.counter("member.lookup.round_trips", "key", keyType).increment(roundTrips);
+        meterRegistry.counter("member.lookup.round_trips_saved", "key", keyType).increment(keys - roundTrips);
+    }
+
+    private <T> List<List<T>> chunks(List<T> keys) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i += lookupBatchSize) {
+            chunks.add(keys.subList(i, Math.min(i + lookupBatchSize, keys.size())));
+        }
+        return chunks;
+    }
+
+    private static <T> List<T> distinct(Collection<T> keys) {
+        if (keys == null) {
+            return List.of();
+        }
+        List<T> result = new ArrayList<>(new LinkedHashSet<>(keys));
+        result.removeIf(Objects::isNull);
+        return result;
     }
 
     private BooleanExpression teamNameEq(String teamName) {
@@ -130,5 +259,4 @@ public class MemberJpaRepository {
     private BooleanExpression ageLoe(Integer ageLoe) {
         return ageLoe != null ? member.age.loe(ageLoe) : null;
     }
-
 }
@@ -0,0 +1,112 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.Query;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.dto.UsernameMatch;
+import study.querydsl.entity.Member;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * MemberSearchCondition 을 member left join team 네이티브 SQL 로 만든다.
+ * JPA 네이티브 쿼리와 JDBC PreparedStatement 양쪽에서 같은 SQL / 파라미터를 사용한다.
+ * 컬럼 순서: member_id, username, age, team_id, team_name
+ */
+public final class MemberNativeQuery {
+
+    private static final String SELECT = """
+            select m.member_id, m.username, m.age, t.id as team_id, t.name as team_name
+            from member m left join team t on m.team_id = t.id""";
+
+    private final String sql;
+    private final List<Object> parameters;
+
+    private MemberNativeQuery(String sql, List<Object> parameters) {
+        this.sql = sql;
+        this.parameters = parameters;
+    }
+
+    public static MemberNativeQuery of(MemberSearchCondition condition) {
+        List<String> predicates = new ArrayList<>();
+        List<Object> parameters = new ArrayList<>();
+
+        String username = condition.getUsername();
+        if (hasText(username)) {
+            UsernameMatch match = condition.getUsernameMatch() != null ? condition.getUsernameMatch() : UsernameMatch.EXACT;
+            String normalized = Member.normalizeUsername(username);
+            switch (match) {
+                case EXACT -> {
+                    predicates.add("m.username = ?");
+                    parameters.add(username);
+                }
+                case IGNORE_CASE -> {
+                    predicates.add("m.username_lower = ?");
+                    parameters.add(normalized);
+                }
+                case PREFIX -> {
+                    predicates.add("m.username_lower like ? escape '\\'");
+                    parameters.add(escapeLike(normalized) + "%");
+                }
+                case CONTAINS -> {
+                    predicates.add("m.username_lower like ? escape '\\'");
+                    parameters.add("%" + escapeLike(normalized) + "%");
+                }
+            }
+        }
+        if (hasText(condition.getTeamName())) {
+            predicates.add("t.name = ?");
+            parameters.add(condition.getTeamName());
+        }
+        if (condition.getAgeGoe() != null) {
+            predicates.add("m.age >= ?");
+            parameters.add(condition.getAgeGoe());
+        }
+        if (condition.getAgeLoe() != null) {
+            predicates.add("m.age <= ?");
+            parameters.add(condition.getAgeLoe());
+        }
+
+        String sql = predicates.isEmpty() ? SELECT : SELECT + "\nwhere " + String.join(" and ", predicates);
+        return new MemberNativeQuery(sql + "\norder by m.member_id", List.copyOf(parameters));
+    }
+
+    public String sql() {
+        return sql;
+    }
+
+    public Query bind(Query query) {
+        for (int i = 0; i < parameters.size(); i++) {
+            query.setParameter(i + 1, parameters.get(i));
+        }
+        return query;
+    }
+
+    public PreparedStatement bind(PreparedStatement statement) throws SQLException {
+        for (int i = 0; i < parameters.size(); i++) {
+            statement.setObject(i + 1, parameters.get(i));
+        }
+        return statement;
+    }
+
+    /**
+     * 네이티브 쿼리 결과 한 줄(Object[])을 DTO 로 바꾼다.
+     */
+    public static MemberTeamDTO toDTO(Object[] row) {
+        return new MemberTeamDTO(
+                ((Number) row[0]).longValue(),
+                (String) row[1],
+                ((Number) row[2]).intValue(),
+                row[3] != null ? ((Number) row[3]).longValue() : null,
+                (String) row[4]);
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,48 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.Predicate;
+import org.springframework.data.querydsl.binding.QuerydslBinderCustomizer;
+import org.springframework.data.querydsl.binding.QuerydslBindings;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.QMember;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * HTTP 쿼리 파라미터로 만들 수 있는 Member 검색 조건을 인덱스를 사용할 수 있는 경로와 연산자로 제한한다.
+ * - username: username_lower 접두어 검색 (대소문자 무시)
+ * - team.name: 완전 일치
+ * - age: 값이 하나면 완전 일치, 두 개면 between
+ */
+public class MemberQuerydslBinderCustomizer implements QuerydslBinderCustomizer<QMember> {
+
+    public static final List<String> ALLOWED_PATHS = List.of("username", "team.name", "age");
+    public static final List<String> INDEXED_PATHS = List.of("username", "team.name");
+
+    @Override
+    public void customize(QuerydslBindings bindings, QMember root) {
+        bindings.including(root.username, root.team.name, root.age);
+        bindings.excludeUnlistedProperties(true);
+
+        bindings.bind(root.username)
+                .first((path, value) -> root.usernameLower.startsWith(Member.normalizeUsername(value)));
+        bindings.bind(root.team.name)
+                .first((path, value) -> path.eq(value));
+        bindings.bind(root.age)
+                .all((path, values) -> Optional.of(ageBetween(root, values)));
+    }
+
+    private static Predicate ageBetween(QMember root, Collection<? extends Integer> values) {
+        List<Integer> ages = new ArrayList<>(values);
+        if (ages.size() == 1) {
+            return root.age.eq(ages.get(0));
+        }
+        if (ages.size() == 2) {
+            return root.age.between(Math.min(ages.get(0), ages.get(1)), Math.max(ages.get(0), ages.get(1)));
+        }
+        throw new IllegalArgumentException("age accepts one value or a range of two values");
+    }
+}
@@ -1,30 +1,63 @@
 package study.querydsl.repository;
 
 import com.querydsl.core.QueryResults;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDTO;
 import study.querydsl.dto.QMemberTeamDTO;
+import study.querydsl.dto.UsernameMatch;
 import study.querydsl.entity.Member;
+import study.querydsl.search.MemberNameIndex;
+import study.querydsl.support.DeadlineJPAQueryFactory;
+import study.querydsl.support.MethodHandleProjection;
+import study.querydsl.support.MethodHandleProjections;
+import study.querydsl.timeout.QueryDeadline;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QMemberTeamView.memberTeamView;
 import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.MemberConditions.usernameMatches;
 
 public class MemberRepositoryImpl implements MemberCustomRepository {
+    /* findProjected 에서 DTO 의 프로퍼티 이름으로 사용할 수 있는 컬럼 */
+    private static final MethodHandleProjections PROJECTIONS = new MethodHandleProjections(Map.of(
+            "memberId", member.id,
+            "id", member.id,
+            "username", member.username,
+            "age", member.age,
+            "teamId", team.id,
+            "teamName", team.name));
+    private static final Set<Expression<?>> TEAM_PATHS = Set.of(team.id, team.name);
+
+    /* forEachRow 에서 한 번에 가져오는 행 수 */
+    private static final int ROW_FETCH_SIZE = 1_000;
+
+    private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final MemberNameIndex memberNameIndex;
 
-    public MemberRepositoryImpl(EntityManager em) {
-        this.queryFactory = new JPAQueryFactory(em);
+    public MemberRepositoryImpl(EntityManager em, MemberNameIndex memberNameIndex) {
+        this.em = em;
+        this.queryFactory = new DeadlineJPAQueryFactory(em);
+        this.memberNameIndex = memberNameIndex;
     }
 
     @Override
@@ -39,11 +72,96 @@ public class MemberRepositoryImpl implements MemberCustomRepository {
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(
-                        usernameEq(condition.getUsername()),
+                        usernameMatches(condition.getUsername(), condition.getUsernameMatch()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 )
+                .orderBy(member.id.asc())
+                .fetch();
+    }
+
+    @Override
+    public List<MemberTeamDTO> searchByUsername(String username, UsernameMatch match) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername(username);
+        condition.setUsernameMatch(match);
+        return search(condition);
+    }
+
+    @Override
+    public List<MemberTeamDTO> searchByUsernameFragment(String fragment, int limit) {
+        /* 색인으로 처리할 수 없는 짧은 검색어나, 색인을 아직 적재하는 중이면 username_lower like '%x%' 로 대체한다 */
+        if (!memberNameIndex.supports(fragment) || !memberNameIndex.isReady()) {
+            return queryFactory
+                    .select(new QMemberTeamDTO(
+                            member.id.as("memberId"),
+                            member.username,
+                            member.age,
+                            team.id.as("teamId"),
+                            team.name.as("teamName")))
+                    .from(member)
+                    .leftJoin(member.team, team)
+                    .where(usernameMatches(fragment, UsernameMatch.CONTAINS))
+                    .orderBy(member.id.asc())
+                    .limit(limit)
+                    .fetch();
+        }
+
+        List<Long> memberIds = memberNameIndex.search(fragment, limit);
+        if (memberIds.isEmpty()) {
+            return List.of();
+        }
+        return queryFactory
+                .select(new QMemberTeamDTO(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(member.id.in(memberIds))
+                .orderBy(member.id.asc())
+                .fetch();
+    }
+
+    /**
+     * type 의 생성자 파라미터에 해당하는 컬럼만 조회한다. team 컬럼이나 조건이 없으면 조인하지 않는다.
+     */
+    @Override
+    public <T> List<T> findProjected(MemberSearchCondition condition, Class<T> type) {
+        MethodHandleProjection<T> projection = PROJECTIONS.of(type);
+        JPAQuery<T> query = queryFactory
+                .select(projection)
+                .from(member);
+        if (MethodHandleProjections.uses(projection, TEAM_PATHS) || hasText(condition.getTeamName())) {
+            query.leftJoin(member.team, team);
+        }
+        return query
+                .where(
+                        usernameMatches(condition.getUsername(), condition.getUsernameMatch()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe())
+                )
+                .fetch();
+    }
+
+    /**
+     * QuerydslPredicateExecutor 와 같은 Predicate 를 받지만, 엔티티 대신 필요한 컬럼만 조회한다.
+     */
+    @Override
+    public <T> List<T> findProjected(Predicate predicate, Class<T> type) {
+        MethodHandleProjection<T> projection = PROJECTIONS.of(type);
+        JPAQuery<T> query = queryFactory
+                .select(projection)
+                .from(member);
+        if (MethodHandleProjections.uses(projection, TEAM_PATHS)) {
+            query.leftJoin(member.team, team);
+        }
+        return query
+                .where(predicate)
                 .fetch();
     }
 
@@ -59,11 +177,12 @@ public class MemberRepositoryImpl implements MemberCustomRepository {
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(
-                        usernameEq(condition.getUsername()),
+                        usernameMatches(condition.getUsername(), condition.getUsernameMatch()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 )
+                .orderBy(MemberSort.of(pageable.getSort()).orderSpecifiers())
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
                 .fetchResults();
@@ -85,11 +204,12 @@ public class MemberRepositoryImpl implements MemberCustomRepository {
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(
-                        usernameEq(condition.getUsername()),
+                        usernameMatches(condition.getUsername(), condition.getUsernameMatch()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 )
+                .orderBy(MemberSort.of(pageable.getSort()).orderSpecifiers())
                 .offset(pageable.getOffset())
                 .limit(pageable.getPageSize())
                 .fetch();
@@ -99,7 +219,7 @@ public class MemberRepositoryImpl implements MemberCustomRepository {
                 .selectFrom(member)
                 .leftJoin(member.team, team)
                 .where(
-                        usernameEq(condition.getUsername()),
+                        usernameMatches(condition.getUsername(), condition.getUsernameMatch()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
@@ -110,8 +230,111 @@ public class MemberRepositoryImpl implements MemberCustomRepository {
         return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchCount);
     }
 
-    private BooleanExpression usernameEq(String username) {
-        return hasText(username) ? member.username.eq(username) : null;
+    @Override
+    public Page<MemberTeamDTO> searchByPredicate(Predicate predicate, Pageable pageable) {
+        List<MemberTeamDTO> content = queryFactory
+                .select(new QMemberTeamDTO(
+                        member.id.as("memberId"),
+                        member.username,
+                        member.age,
+                        team.id.as("teamId"),
+                        team.name.as("teamName")))
+                .from(member)
+                .leftJoin(member.team, team)
+                .where(predicate)
+                .orderBy(MemberSort.of(pageable.getSort()).orderSpecifiers())
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        JPAQuery<Long> countQuery = queryFactory
+                .select(member.count())
+                .from(member)
+                .where(predicate);
+
+        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchOne);
+    }
+
+    /**
+     * member_team_view 에서 조인 없이 검색한다. (커밋된 변경만 반영되어 있음, MemberTeamViewMaintainer 참고)
+     */
+    @Override
+    public List<MemberTeamDTO> searchFromView(MemberSearchCondition condition) {
+        return queryFactory
+                .select(new QMemberTeamDTO(
+                        memberTeamView.memberId,
+                        memberTeamView.username,
+                        memberTeamView.age,
+                        memberTeamView.teamId,
+                        memberTeamView.teamName))
+                .from(memberTeamView)
+                .where(viewConditions(condition))
+                .fetch();
+    }
+
+    @Override
+    public Page<MemberTeamDTO> searchFromViewWithPage(MemberSearchCondition condition, Pageable pageable) {
+        List<MemberTeamDTO> content = queryFactory
+                .select(new QMemberTeamDTO(
+                        memberTeamView.memberId,
+                        memberTeamView.username,
+                        memberTeamView.age,
+                        memberTeamView.teamId,
+                        memberTeamView.teamName))
+                .from(memberTeamView)
+                .where(viewConditions(condition))
+                .orderBy(memberTeamView.memberId.asc())
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch();
+
+        JPAQuery<Long> countQuery = queryFactory
+                .select(memberTeamView.count())
+                .from(memberTeamView)
+                .where(viewConditions(condition));
+
+        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchOne);
+    }
+
+    /**
+     * 조건에 맞는 회원을 DTO 없이 한 행씩 consumer 에 전달하고, 처리한 행 수를 반환한다.
+     * 영속성 컨텍스트를 거치지 않고 JDBC ResultSet 을 forward-only 로 읽으며, 모든 행에 같은 MemberRow 객체를 재사용한다.
+     * (통계 / export 처럼 몇 개의 컬럼만 훑고 버리는 작업용)
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long forEachRow(MemberSearchCondition condition, MemberRowConsumer consumer) {
+        MemberNativeQuery nativeQuery = MemberNativeQuery.of(condition);
+        Session session = em.unwrap(Session.class);
+        /* 아직 flush 되지 않은 변경도 결과에 포함되도록 한다 */
+        session.flush();
+        return session.doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(nativeQuery.sql(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(ROW_FETCH_SIZE);
+                QueryDeadline.applyTo(statement);
+                nativeQuery.bind(statement);
+                try (ResultSet rs = statement.executeQuery()) {
+                    MemberRow row = new ResultSetMemberRow(rs, nativeQuery.sql());
+                    long count = 0;
+                    while (rs.next()) {
+                        consumer.accept(row);
+                        count++;
+                    }
+                    return count;
+                }
+            }
+        });
+    }
+
+    private BooleanExpression[] viewConditions(MemberSearchCondition condition) {
+        return new BooleanExpression[]{
+                usernameMatches(memberTeamView.username, memberTeamView.usernameLower,
+                        condition.getUsername(), condition.getUsernameMatch()),
+                hasText(condition.getTeamName()) ? memberTeamView.teamName.eq(condition.getTeamName()) : null,
+                condition.getAgeGoe() != null ? memberTeamView.age.goe(condition.getAgeGoe()) : null,
+                condition.getAgeLoe() != null ? memberTeamView.age.loe(condition.getAgeLoe()) : null
+        };
     }
 
     private BooleanExpression teamNameEq(String teamName) {
@@ -0,0 +1,24 @@
+package study.querydsl.repository;
+
+/**
+ * forEachRow 에서 전달하는 현재 행의 view
+ * 같은 객체가 다음 행으로 계속 재사용되므로 콜백 밖에서 보관하면 안 된다. (필요한 값은 복사해서 사용)
+ * 문자열 컬럼은 호출할 때만 읽으므로, 숫자 컬럼만 사용하면 행마다 객체가 생성되지 않는다.
+ */
+public interface MemberRow {
+
+    long memberId();
+
+    String username();
+
+    int age();
+
+    /**
+     * 팀이 없으면 false 이고, 이때 teamId() 는 0 이다.
+     */
+    boolean hasTeam();
+
+    long teamId();
+
+    String teamName();
+}
@@ -0,0 +1,7 @@
+package study.querydsl.repository;
+
+@FunctionalInterface
+public interface MemberRowConsumer {
+
+    void accept(MemberRow row);
+}
@@ -0,0 +1,124 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import org.springframework.data.domain.Sort;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.search.InvalidSearchException;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 회원 검색 페이지의 정렬 (Pageable.getSort() -> OrderSpecifier)
+ * - 인덱스 순서대로 읽을 수 있는 프로퍼티만 허용한다. (username: idx_member_username, age: idx_member_age, memberId: PK)
+ *   H2 의 보조 인덱스는 키 뒤에 PK 를 포함하므로 (key, member.id) 순서가 곧 인덱스 순서가 되어,
+ *   큰 offset 에서도 전체를 정렬(filesort)하지 않고 인덱스를 offset + size 만큼만 읽는다.
+ * - 같은 값끼리는 member.id 를 정렬 방향과 같은 방향으로 붙여서 페이지 사이에 순서가 흔들리지 않게 한다.
+ * - 정렬 키를 둘 이상 섞으면 맞는 인덱스가 없으므로 (memberId 를 같은 방향으로 덧붙이는 경우 제외) 거절한다.
+ * 정렬이 없으면 member.id 오름차순이다.
+ */
+public final class MemberSort {
+
+    private static final MemberSort BY_ID = new MemberSort(Key.MEMBER_ID, Sort.Direction.ASC);
+
+    private static final Map<String, Key> KEYS = Map.of(
+            "memberId", Key.MEMBER_ID,
+            "id", Key.MEMBER_ID,
+            "username", Key.USERNAME,
+            "age", Key.AGE);
+
+    private final Key key;
+    private final Sort.Direction direction;
+
+    private MemberSort(Key key, Sort.Direction direction) {
+        this.key = key;
+        this.direction = direction;
+    }
+
+    /**
+     * @throws InvalidSearchException 허용되지 않는 프로퍼티이거나, 인덱스 순서로 처리할 수 없는 정렬인 경우
+     */
+    public static MemberSort of(Sort sort) {
+        if (sort == null || sort.isUnsorted()) {
+            return BY_ID;
+        }
+        List<Sort.Order> orders = sort.toList();
+        Sort.Order first = orders.get(0);
+        Key key = keyOf(first);
+
+        if (orders.size() > 2) {
+            throw new InvalidSearchException("only one sort property (optionally followed by memberId) is supported");
+        }
+        if (orders.size() == 2) {
+            Sort.Order second = orders.get(1);
+            if (key == Key.MEMBER_ID || keyOf(second) != Key.MEMBER_ID || second.getDirection() != first.getDirection()) {
+                throw new InvalidSearchException("only one sort property (optionally followed by memberId "
+                        + "in the same direction) is supported");
+            }
+        }
+        return new MemberSort(key, first.getDirection());
+    }
+
+    public OrderSpecifier<?>[] orderSpecifiers() {
+        if (key == Key.MEMBER_ID) {
+            return new OrderSpecifier<?>[]{orderOf(member.id)};
+        }
+        return new OrderSpecifier<?>[]{orderOf(key.path), orderOf(member.id)};
+    }
+
+    /**
+     * DB 와 같은 순서로 DTO 를 비교한다. (파티션별 결과를 합칠 때 사용)
+     * H2 는 null 을 가장 작은 값으로 정렬하므로 오름차순에서는 앞, 내림차순에서는 뒤에 온다.
+     */
+    public Comparator<MemberTeamDTO> comparator() {
+        Comparator<MemberTeamDTO> byKey = (a, b) -> compareNullsFirst(key.value.apply(a), key.value.apply(b));
+        Comparator<MemberTeamDTO> ascending = byKey.thenComparing(MemberTeamDTO::getMemberId);
+        return direction.isAscending() ? ascending : ascending.reversed();
+    }
+
+    private OrderSpecifier<?> orderOf(ComparableExpressionBase<?> path) {
+        return direction.isAscending() ? path.asc() : path.desc();
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static int compareNullsFirst(Comparable a, Comparable b) {
+        if (a == null || b == null) {
+            return a == null ? (b == null ? 0 : -1) : 1;
+        }
+        return a.compareTo(b);
+    }
+
+    private static Key keyOf(Sort.Order order) {
+        Key key = KEYS.get(order.getProperty());
+        if (key == null) {
+            throw new InvalidSearchException("sort by '" + order.getProperty() + "' is not allowed, use one of "
+                    + KEYS.keySet());
+        }
+        /* 대소문자 무시 / null 위치 지정은 인덱스 순서와 다르다 */
+        if (order.isIgnoreCase() || order.getNullHandling() != Sort.NullHandling.NATIVE) {
+            throw new InvalidSearchException("ignoreCase and null handling are not supported for sort by '"
+                    + order.getProperty() + "'");
+        }
+        return key;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private enum Key {
+        MEMBER_ID(member.id, dto -> dto.getMemberId()),
+        USERNAME(member.username, dto -> dto.getUsername()),
+        AGE(member.age, dto -> dto.getAge());
+
+        private final ComparableExpressionBase<?> path;
+        private final Function<MemberTeamDTO, Comparable> value;
+
+        Key(ComparableExpressionBase<?> path, Function<MemberTeamDTO, Comparable> value) {
+            this.path = path;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package study.querydsl.repository;
+
+import org.springframework.jdbc.UncategorizedSQLException;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * MemberNativeQuery 의 컬럼 순서(member_id, username, age, team_id, team_name)로 ResultSet 의 현재 행을 읽는다.
+ */
+final class ResultSetMemberRow implements MemberRow {
+
+    private final ResultSet rs;
+    private final String sql;
+
+    ResultSetMemberRow(ResultSet rs, String sql) {
+        this.rs = rs;
+        this.sql = sql;
+    }
+
+    @Override
+    public long memberId() {
+        try {
+            return rs.getLong(1);
+        } catch (SQLException e) {
+            throw translate(e);
+        }
+    }
+
+    @Override
+    public String username() {
+        try {
+            return rs.getString(2);
+        } catch (SQLException e) {
+            throw translate(e);
+        }
+    }
+
+    @Override
+    public int age() {
+        try {
+            return rs.getInt(3);
+        } catch (SQLException e) {
+            throw translate(e);
+        }
+    }
+
+    @Override
+    public boolean hasTeam() {
+        try {
+            rs.getLong(4);
+            return !rs.wasNull();
+        } catch (SQLException e) {
+            throw translate(e);
+        }
+    }
+
+    @Override
+    public long teamId() {
+        try {
+            return rs.getLong(4);
+        } catch (SQLException e) {
+            throw translate(e);
+        }
+    }
+
+    @Override
+    public String teamName() {
+        try {
+            return rs.getString(5);
+        } catch (SQLException e) {
+            throw translate(e);
+        }
+    }
+
+    private UncategorizedSQLException translate(SQLException e) {
+        return new UncategorizedSQLException("forEachRow", sql, e);
+    }
+}
@@ -0,0 +1,45 @@
+package study.querydsl.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * 현재 스레드에서 측정 중인 범위 안에서 준비된 SQL 수를 센다. (hibernate.session_factory.statement_inspector)
+ * 세션에 리스너를 붙이지 않으므로 같은 세션에서 여러 번 측정해도 쌓이지 않고,
+ * 측정이 중첩되면 안쪽에서 센 수는 바깥쪽에도 더해진다.
+ */
+public class StatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> ACTIVE = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] statements = ACTIVE.get();
+        if (statements != null) {
+            statements[0]++;
+        }
+        return sql;
+    }
+
+    /**
+     * work 를 실행하는 동안 센 SQL 수를 끝난 후 (예외가 발생해도) counted 에 넘긴다.
+     */
+    static <T> T count(Supplier<T> work, IntConsumer counted) {
+        int[] outer = ACTIVE.get();
+        int[] statements = new int[1];
+        ACTIVE.set(statements);
+        try {
+            return work.get();
+        } finally {
+            if (outer == null) {
+                ACTIVE.remove();
+            } else {
+                outer[0] += statements[0];
+                ACTIVE.set(outer);
+            }
+            counted.accept(statements[0]);
+        }
+    }
+}
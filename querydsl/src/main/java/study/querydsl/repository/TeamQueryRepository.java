@@ -0,0 +1,79 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+import study.querydsl.dto.MemberDTO;
+import study.querydsl.dto.TeamMembersDTO;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * 팀 목록 + 팀별 회원 조회
+ * 컬렉션 fetch join 은 페이징을 메모리에서 처리하므로(HHH90003004 경고), 쿼리를 나누어서 조회한 후 메모리에서 조립한다.
+ * 1. 팀 페이지 조회
+ * 2. 해당 팀들의 회원을 team_id in (...) 한 번으로 조회
+ * 페이지 크기와 상관없이 쿼리는 2번(+ count) 이다.
+ */
+@Repository
+public class TeamQueryRepository {
+
+    private final JPAQueryFactory queryFactory;
+
+    public TeamQueryRepository(EntityManager em) {
+        this.queryFactory = new JPAQueryFactory(em);
+    }
+
+    public Page<TeamMembersDTO> findTeamsWithMembers(String teamName, Pageable pageable) {
+        List<TeamMembersDTO> content = queryFactory
+                .select(team.id, team.name)
+                .from(team)
+                .where(teamNameEq(teamName))
+                .orderBy(team.id.asc())
+                .offset(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .fetch()
+                .stream()
+                .map(tuple -> new TeamMembersDTO(tuple.get(team.id), tuple.get(team.name)))
+                .toList();
+
+        if (!content.isEmpty()) {
+            Map<Long, TeamMembersDTO> teamsById = new LinkedHashMap<>();
+            content.forEach(dto -> teamsById.put(dto.getTeamId(), dto));
+
+            List<Tuple> members = queryFactory
+                    .select(member.team.id, member.username, member.age)
+                    .from(member)
+                    .where(member.team.id.in(teamsById.keySet()))
+                    .orderBy(member.id.asc())
+                    .fetch();
+            for (Tuple row : members) {
+                teamsById.get(row.get(member.team.id)).getMembers()
+                        .add(new MemberDTO(row.get(member.username), row.get(member.age)));
+            }
+        }
+
+        JPAQuery<Long> countQuery = queryFactory
+                .select(team.count())
+                .from(team)
+                .where(teamNameEq(teamName));
+
+        return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchOne);
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        return hasText(teamName) ? team.name.eq(teamName) : null;
+    }
+}
@@ -0,0 +1,15 @@
+package study.querydsl.search;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 허용되지 않는 검색 조건(경로, 연산자, 정렬 등)을 요청한 경우
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidSearchException extends RuntimeException {
+
+    public InvalidSearchException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,272 @@
+package study.querydsl.search;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import study.querydsl.tenant.TenantContext;
+import study.querydsl.tenant.TenantPoolEvictedEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Member.username 에 대한 메모리 기반 n-gram(trigram) 역색인
+ * - like '%x%' 검색은 테이블 전체를 스캔하므로, username 을 3글자 단위로 쪼갠 gram -> member id 목록을 유지한다.
+ * - member id 목록은 오름차순으로 정렬된 long[] 로 유지하므로, 가장 짧은 목록을 앞에서부터 읽으며 나머지는 이진 탐색으로 교집합을 구하고
+ *   원문과 비교하여 false positive 를 제거하다가 limit 개를 찾으면 멈춘다.
+ * - MemberNameIndexListener 가 커밋된 변경만 반영하고, MemberNameIndexLoader 가 기동 시 / 벌크 연산 후 전체를 적재한다.
+ *   적재가 끝나기 전(isReady() == false)에는 검색하지 않는다. (MemberRepositoryImpl 은 SQL 로 대체한다)
+ * - tenant 마다 따로 유지하며, 모든 메서드는 현재 스레드의 tenant(TenantContext) 색인을 사용한다.
+ *   커넥션 풀이 닫힌 tenant 의 색인은 버리고, 다시 요청되면 처음부터 적재한다. (TenantSchemaProvisioner)
+ */
+@Component
+public class MemberNameIndex {
+
+    public static final int GRAM_SIZE = 3;
+
+    private final Map<String, Shard> shards = new ConcurrentHashMap<>();
+
+    /**
+     * 커밋된 변경을 반영한다. username 이 null 이면 색인에서 제거한다.
+     */
+    public void index(Long memberId, String username) {
+        if (memberId == null) {
+            return;
+        }
+        shard().put(memberId, normalize(username), true);
+    }
+
+    public void remove(Long memberId) {
+        index(memberId, null);
+    }
+
+    /**
+     * 현재 tenant 의 전체 적재가 끝났는지 여부
+     */
+    public boolean isReady() {
+        Shard shard = shards.get(TenantContext.current());
+        return shard != null && shard.ready;
+    }
+
+    /**
+     * fragment 가 GRAM_SIZE 보다 짧으면 색인으로 처리할 수 없다.
+     */
+    public boolean supports(String fragment) {
+        String normalized = normalize(fragment);
+        return normalized != null && normalized.length() >= GRAM_SIZE;
+    }
+
+    /**
+     * username 에 fragment 를 포함하는 member id 를 오름차순으로 최대 limit 개 반환한다.
+     */
+    public List<Long> search(String fragment, int limit) {
+        if (!supports(fragment)) {
+            throw new IllegalArgumentException("fragment must have at least " + GRAM_SIZE + " characters");
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be at least 1: " + limit);
+        }
+        Shard shard = shard();
+        if (!shard.ready) {
+            throw new IllegalStateException("member name index of tenant " + TenantContext.current() + " is not loaded yet");
+        }
+        return shard.search(normalize(fragment), limit);
+    }
+
+    public int size() {
+        return shard().size();
+    }
+
+    public void clear() {
+        shards.remove(TenantContext.current());
+    }
+
+    @EventListener
+    public void onPoolEvicted(TenantPoolEvictedEvent event) {
+        shards.remove(event.tenant());
+    }
+
+    /**
+     * 현재 tenant 의 색인을 비우고 적재를 시작한다. markReady() 전까지는 검색하지 않는다.
+     * 적재 중에도 커밋된 변경은 계속 반영되며, 적재가 읽은 값보다 우선한다.
+     */
+    void beginLoad() {
+        shards.put(TenantContext.current(), new Shard());
+    }
+
+    /**
+     * 적재 중 읽은 row 를 반영한다. 그 사이에 커밋된 변경(수정 / 삭제)이 이미 반영된 회원은 건너뛴다.
+     */
+    void load(Long memberId, String username) {
+        if (memberId != null && username != null) {
+            shard().put(memberId, normalize(username), false);
+        }
+    }
+
+    void markReady() {
+        shard().markReady();
+    }
+
+    private Shard shard() {
+        return shards.computeIfAbsent(TenantContext.current(), tenant -> new Shard());
+    }
+
+    private static Set<String> grams(String normalized) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_SIZE <= normalized.length(); i++) {
+            grams.add(normalized.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    private static String normalize(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static final class Shard {
+
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<String, Postings> postings = new HashMap<>();
+        private final Map<Long, String> names = new HashMap<>();
+        /* 적재 중에 커밋된 변경이 반영된 id (적재가 읽은 예전 값으로 덮어쓰지 않도록) */
+        private final Set<Long> changedWhileLoading = new HashSet<>();
+        private volatile boolean ready;
+
+        void put(long memberId, String normalized, boolean committedChange) {
+            lock.writeLock().lock();
+            try {
+                if (!ready) {
+                    if (committedChange) {
+                        changedWhileLoading.add(memberId);
+                    } else if (changedWhileLoading.contains(memberId)) {
+                        return;
+                    }
+                }
+                String previous = normalized != null ? names.put(memberId, normalized) : names.remove(memberId);
+                if (normalized != null && normalized.equals(previous)) {
+                    return;
+                }
+                if (previous != null) {
+                    for (String gram : grams(previous)) {
+                        Postings ids = postings.get(gram);
+                        if (ids != null && ids.remove(memberId) && ids.size == 0) {
+                            postings.remove(gram);
+                        }
+                    }
+                }
+                if (normalized != null) {
+                    for (String gram : grams(normalized)) {
+                        postings.computeIfAbsent(gram, key -> new Postings()).add(memberId);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void markReady() {
+            lock.writeLock().lock();
+            try {
+                ready = true;
+                changedWhileLoading.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        List<Long> search(String normalized, int limit) {
+            lock.readLock().lock();
+            try {
+                List<Postings> candidates = new ArrayList<>();
+                for (String gram : grams(normalized)) {
+                    Postings ids = postings.get(gram);
+                    if (ids == null) {
+                        return List.of();
+                    }
+                    candidates.add(ids);
+                }
+                /* 가장 작은 posting list 를 오름차순으로 읽으며 나머지에 모두 포함되는지 확인한다 */
+                candidates.sort(Comparator.comparingInt(ids -> ids.size));
+                Postings smallest = candidates.get(0);
+                int[] from = new int[candidates.size()];
+
+                List<Long> result = new ArrayList<>(Math.min(limit, smallest.size));
+                for (int i = 0; i < smallest.size && result.size() < limit; i++) {
+                    long id = smallest.ids[i];
+                    if (containsAll(candidates, from, id) && names.get(id).contains(normalized)) {
+                        result.add(id);
+                    }
+                }
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return names.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        /* id 가 오름차순으로 들어오므로 각 목록에서 이전에 찾은 위치부터 탐색한다 */
+        private static boolean containsAll(List<Postings> candidates, int[] from, long id) {
+            for (int c = 1; c < candidates.size(); c++) {
+                Postings other = candidates.get(c);
+                int index = Arrays.binarySearch(other.ids, from[c], other.size, id);
+                from[c] = index >= 0 ? index : -index - 1;
+                if (index < 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 오름차순으로 정렬된 member id 목록
+     * 새 회원의 id 는 시퀀스로 증가하므로 대부분 끝에 추가된다.
+     */
+    private static final class Postings {
+
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            int insertAt = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+    }
+}
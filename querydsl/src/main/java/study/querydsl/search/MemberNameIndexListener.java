@@ -0,0 +1,90 @@
+package study.querydsl.search;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import study.querydsl.entity.Member;
+import study.querydsl.tenant.TenantContext;
+
+/**
+ * Member 의 insert / update / delete 를 커밋된 후에 MemberNameIndex 에 반영하는 Hibernate 리스너
+ * (롤백된 변경이나 아직 커밋되지 않은 변경은 색인에 보이지 않는다)
+ * 벌크 update / delete 는 이벤트를 거치지 않으므로 BulkChangeCapture 가 커밋 후 색인을 다시 적재한다.
+ * 등록되지 않으면 색인이 기동 시점에 멈춘 채로 검색에 사용되므로, lazy-initialization(fast profile)에서도 기동 시 바로 생성한다.
+ */
+@Component
+@Lazy(false)
+@RequiredArgsConstructor
+public class MemberNameIndexListener implements PostCommitInsertEventListener,
+        PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private final EntityManagerFactory emf;
+    private final MemberNameIndex memberNameIndex;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return persister.getMappedClass() == Member.class;
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member member) {
+            TenantContext.run(tenantOf(event.getSession()), () -> memberNameIndex.index(member.getId(), member.getUsername()));
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Member member) {
+            TenantContext.run(tenantOf(event.getSession()), () -> memberNameIndex.index(member.getId(), member.getUsername()));
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member member) {
+            TenantContext.run(tenantOf(event.getSession()), () -> memberNameIndex.remove(member.getId()));
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    /* 커밋을 처리하는 스레드가 아닌, 변경을 만든 세션의 tenant 색인에 반영한다 */
+    private static String tenantOf(EventSource session) {
+        String tenant = session.getTenantIdentifier();
+        return tenant != null ? tenant : TenantContext.DEFAULT_TENANT;
+    }
+}
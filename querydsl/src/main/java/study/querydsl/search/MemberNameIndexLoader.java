@@ -0,0 +1,78 @@
+package study.querydsl.search;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import study.querydsl.tenant.TenantContext;
+
+import java.util.List;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 애플리케이션 기동이 끝나면 (readiness 를 막지 않도록 별도 스레드에서) member 테이블 전체를 id 순서로 나누어 읽어 MemberNameIndex 를 적재한다.
+ * 적재가 끝나기 전까지 색인 검색은 SQL 로 대체된다.
+ */
+@Slf4j
+@Component
+public class MemberNameIndexLoader {
+
+    private static final int CHUNK_SIZE = 10_000;
+
+    private final MemberNameIndex memberNameIndex;
+    private final JPAQueryFactory queryFactory;
+
+    public MemberNameIndexLoader(MemberNameIndex memberNameIndex, EntityManager em) {
+        this.memberNameIndex = memberNameIndex;
+        this.queryFactory = new JPAQueryFactory(em);
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        rebuild();
+    }
+
+    /**
+     * tenant 의 색인을 별도 스레드에서 다시 적재한다. 적재에 사용한 커넥션은 tenant 풀의 사용으로 치지 않는다.
+     * multi-tenancy 를 사용하는 경우 색인이 없는 tenant 가 요청될 때(TenantSchemaProvisioner), 그리고 벌크 연산이 커밋된 후(BulkChangeCapture) 호출한다.
+     */
+    @Async
+    public void load(String tenant) {
+        TenantContext.runInBackground(tenant, this::rebuild);
+    }
+
+    /**
+     * 현재 tenant 의 색인을 비우고 현재 스레드에서 다시 적재한다.
+     * 적재가 겹치면 먼저 끝난 쪽이 나중 적재의 색인을 완료 상태로 만들 수 있으므로 한 번에 하나씩 실행한다.
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        long lastId = 0L;
+        memberNameIndex.beginLoad();
+        while (true) {
+            List<Tuple> chunk = queryFactory
+                    .select(member.id, member.username)
+                    .from(member)
+                    .where(member.id.gt(lastId))
+                    .orderBy(member.id.asc())
+                    .limit(CHUNK_SIZE)
+                    .fetch();
+            for (Tuple row : chunk) {
+                memberNameIndex.load(row.get(member.id), row.get(member.username));
+            }
+            if (chunk.size() < CHUNK_SIZE) {
+                break;
+            }
+            lastId = chunk.get(chunk.size() - 1).get(member.id);
+        }
+        memberNameIndex.markReady();
+        log.info("member name index loaded for tenant {}: {} members in {} ms",
+                TenantContext.current(), memberNameIndex.size(), System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,153 @@
+package study.querydsl.search;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Predicate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.querydsl.SimpleEntityPathResolver;
+import org.springframework.data.querydsl.binding.QuerydslBindings;
+import org.springframework.data.querydsl.binding.QuerydslPredicateBuilder;
+import org.springframework.data.util.TypeInformation;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.QMember;
+import study.querydsl.repository.MemberQuerydslBinderCustomizer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * HTTP 쿼리 파라미터 -> Querydsl Predicate 변환 결과를 캐시한다.
+ * - 바인딩(QuerydslBindings)은 기동 시 한 번만 만든다.
+ * - 파라미터 이름과 값 개수로 이루어진 shape 별로 허용 여부 검사 결과를 캐시한다.
+ * - Predicate 는 불변이므로 정규화한 파라미터(이름 -> 정렬된 값 목록)의 불변 복사본을 key 로 LRU 캐시에 보관한다.
+ *   (문자열로 이어 붙인 key 는 값에 구분자가 들어 있으면 서로 다른 검색이 같은 key 가 될 수 있다)
+ */
+@Component
+public class MemberPredicateCache {
+
+    private static final TypeInformation<Member> MEMBER_TYPE = TypeInformation.of(Member.class);
+    private static final int MAX_VALUES_PER_PATH = 2;
+
+    private final QuerydslBindings bindings = new QuerydslBindings();
+    private final QuerydslPredicateBuilder predicateBuilder =
+            new QuerydslPredicateBuilder(DefaultConversionService.getSharedInstance(), SimpleEntityPathResolver.INSTANCE);
+
+    /* shape(이름 -> 값 개수) -> 거절 사유 (허용되는 경우 빈 문자열) */
+    private final Map<Map<String, Integer>, String> shapes = new ConcurrentHashMap<>();
+    private final Map<Map<String, List<String>>, Predicate> predicates;
+
+    private final Counter hits;
+    private final Counter misses;
+
+    public MemberPredicateCache(MeterRegistry meterRegistry) {
+        this(meterRegistry, 1_024);
+    }
+
+    MemberPredicateCache(MeterRegistry meterRegistry, int maxPredicates) {
+        new MemberQuerydslBinderCustomizer().customize(bindings, QMember.member);
+        this.predicates = Collections.synchronizedMap(new LinkedHashMap<Map<String, List<String>>, Predicate>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Map<String, List<String>>, Predicate> eldest) {
+                return size() > maxPredicates;
+            }
+        });
+        this.hits = meterRegistry.counter("member.predicate.cache", "result", "hit");
+        this.misses = meterRegistry.counter("member.predicate.cache", "result", "miss");
+    }
+
+    /**
+     * @param parameters 페이징 파라미터(page, size, sort)를 제외한 검색 파라미터
+     * @throws InvalidSearchException 허용되지 않는 경로, 값 개수이거나 인덱스를 사용할 수 있는 조건이 없는 경우
+     */
+    public Predicate resolve(MultiValueMap<String, String> parameters) {
+        Map<String, List<String>> normalized = normalize(parameters);
+        checkShape(normalized);
+
+        Predicate cached = predicates.get(normalized);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        Predicate predicate;
+        try {
+            predicate = predicateBuilder.getPredicate(MEMBER_TYPE, new LinkedMultiValueMap<>(normalized), bindings);
+        } catch (IllegalArgumentException | ConversionException e) {
+            throw new InvalidSearchException(e.getMessage());
+        }
+        if (predicate == null) {
+            predicate = new BooleanBuilder();
+        }
+        predicates.put(normalized, predicate);
+        return predicate;
+    }
+
+    private void checkShape(Map<String, List<String>> normalized) {
+        String rejection;
+        if (MemberQuerydslBinderCustomizer.ALLOWED_PATHS.containsAll(normalized.keySet())) {
+            /* 허용된 경로로만 이루어진 shape 는 경우의 수가 제한되므로 캐시한다 */
+            Map<String, Integer> shape = new HashMap<>();
+            normalized.forEach((name, values) -> shape.put(name, Math.min(values.size(), MAX_VALUES_PER_PATH + 1)));
+            rejection = shapes.computeIfAbsent(Map.copyOf(shape), key -> validate(normalized));
+        } else {
+            rejection = validate(normalized);
+        }
+        if (!rejection.isEmpty()) {
+            throw new InvalidSearchException(rejection);
+        }
+    }
+
+    /**
+     * @return 거절 사유, 허용되는 경우에는 빈 문자열
+     */
+    private static String validate(Map<String, List<String>> normalized) {
+        for (Map.Entry<String, List<String>> entry : normalized.entrySet()) {
+            if (!MemberQuerydslBinderCustomizer.ALLOWED_PATHS.contains(entry.getKey())) {
+                return "unsupported search path '" + entry.getKey() + "' (allowed: "
+                        + MemberQuerydslBinderCustomizer.ALLOWED_PATHS + ")";
+            }
+            if (entry.getValue().size() > MAX_VALUES_PER_PATH) {
+                return "too many values for '" + entry.getKey() + "'";
+            }
+            if (!entry.getKey().equals("age") && entry.getValue().size() > 1) {
+                return "'" + entry.getKey() + "' accepts a single value";
+            }
+        }
+        boolean indexed = normalized.keySet().stream()
+                .anyMatch(MemberQuerydslBinderCustomizer.INDEXED_PATHS::contains);
+        if (!indexed) {
+            return "at least one of " + MemberQuerydslBinderCustomizer.INDEXED_PATHS + " is required";
+        }
+        return "";
+    }
+
+    /* 파라미터 순서와 관계없이 같은 검색은 같은 key 를 갖도록 값을 정렬해서 불변 복사본으로 만든다 */
+    private static Map<String, List<String>> normalize(MultiValueMap<String, String> parameters) {
+        Map<String, List<String>> normalized = new TreeMap<>();
+        parameters.forEach((name, values) -> {
+            List<String> nonEmpty = new ArrayList<>();
+            for (String value : values) {
+                if (value != null && !value.isBlank()) {
+                    nonEmpty.add(value.trim());
+                }
+            }
+            if (!nonEmpty.isEmpty()) {
+                Collections.sort(nonEmpty);
+                normalized.put(name, List.copyOf(nonEmpty));
+            }
+        });
+        return Collections.unmodifiableMap(normalized);
+    }
+}
@@ -0,0 +1,123 @@
+package study.querydsl.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import study.querydsl.admission.AdmissionController;
+import study.querydsl.admission.QueryCostEstimator;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.partition.PartitionedMemberSearch;
+import study.querydsl.plan.AdaptiveMemberSearch;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.support.SingleFlight;
+import study.querydsl.tenant.TenantContext;
+import study.querydsl.timeout.QueryDeadline;
+import study.querydsl.timeout.SearchTimeouts;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 회원 검색 앞단의 single-flight 계층
+ * 대시보드 새로고침 등으로 같은 조건(+ 페이지)의 검색이 동시에 몰리면, DB 조회는 한 번만 하고 결과를 나누어 준다.
+ * 실제로 조회하는 요청만 예상 비용에 따라 허용 / 대기 / 거절된다. (AdmissionController)
+ * 합쳐진 검색은 실제로 조회하는 요청의 시간 예산(QueryDeadline)으로 실행된다.
+ * 그 요청이 취소되거나 예산을 다 써서 실패하면, 기다리던 요청 중 아직 자신의 예산이 남은 요청은 실패를 받지 않고 다시 조회한다.
+ */
+@Service
+public class MemberSearchService {
+
+    private final AdaptiveMemberSearch adaptiveMemberSearch;
+    private final MemberRepository memberRepository;
+    private final PartitionedMemberSearch partitionedMemberSearch;
+    private final QueryCostEstimator queryCostEstimator;
+    private final AdmissionController admissionController;
+
+    private final SingleFlight<SearchKey, List<MemberTeamDTO>> listSearches = new SingleFlight<>(MemberSearchService::canRerun);
+    private final SingleFlight<SearchKey, Page<MemberTeamDTO>> pageSearches = new SingleFlight<>(MemberSearchService::canRerun);
+
+    public MemberSearchService(AdaptiveMemberSearch adaptiveMemberSearch,
+                               MemberRepository memberRepository,
+                               PartitionedMemberSearch partitionedMemberSearch,
+                               QueryCostEstimator queryCostEstimator,
+                               AdmissionController admissionController,
+                               MeterRegistry meterRegistry) {
+        this.adaptiveMemberSearch = adaptiveMemberSearch;
+        this.memberRepository = memberRepository;
+        this.partitionedMemberSearch = partitionedMemberSearch;
+        this.queryCostEstimator = queryCostEstimator;
+        this.admissionController = admissionController;
+        FunctionCounter.builder("member.search.executions", this, MemberSearchService::executions)
+                .description("member searches that actually hit the database")
+                .register(meterRegistry);
+        FunctionCounter.builder("member.search.coalesced", this, MemberSearchService::coalesced)
+                .description("member searches answered by an identical in-flight search")
+                .register(meterRegistry);
+        FunctionCounter.builder("member.search.reruns", this, MemberSearchService::reruns)
+                .description("coalesced member searches re-run because the search they joined was cancelled")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 조건 shape 별로 fetch join / DTO projection / native SQL 중 빠른 방법으로 조회한다. (AdaptiveMemberSearch)
+     */
+    public List<MemberTeamDTO> searchByWhereParameter(MemberSearchCondition condition) {
+        MemberSearchCondition key = copyOf(condition);
+        return listSearches.execute(new SearchKey(TenantContext.current(), "where", key, null),
+                () -> admissionController.admit("/v1/members", queryCostEstimator.estimate(key, null),
+                        () -> Collections.unmodifiableList(adaptiveMemberSearch.search(key))));
+    }
+
+    public Page<MemberTeamDTO> searchWithPageSimple(MemberSearchCondition condition, Pageable pageable) {
+        MemberSearchCondition key = copyOf(condition);
+        return pageSearches.execute(new SearchKey(TenantContext.current(), "pageSimple", key, pageable),
+                () -> admissionController.admit("/v2/members", queryCostEstimator.estimate(key, pageable.getPageSize()),
+                        () -> memberRepository.searchWithPageSimple(key, pageable)));
+    }
+
+    /**
+     * 팀 조건이 있으면 해당 팀 파티션만, 없으면 단일 쿼리로 조회한다. (PartitionedMemberSearch)
+     */
+    public Page<MemberTeamDTO> searchWithPageComplex(MemberSearchCondition condition, Pageable pageable) {
+        MemberSearchCondition key = copyOf(condition);
+        return pageSearches.execute(new SearchKey(TenantContext.current(), "pageComplex", key, pageable),
+                () -> admissionController.admit("/v3/members", queryCostEstimator.estimate(key, pageable.getPageSize()),
+                        () -> partitionedMemberSearch.search(key, pageable)));
+    }
+
+    public long executions() {
+        return listSearches.executions() + pageSearches.executions();
+    }
+
+    public long coalesced() {
+        return listSearches.coalesced() + pageSearches.coalesced();
+    }
+
+    public long reruns() {
+        return listSearches.reruns() + pageSearches.reruns();
+    }
+
+    /* 실행한 요청의 예산으로 중단된 검색이고, 기다리던 요청(현재 스레드)의 예산은 남아 있는 경우 */
+    private static boolean canRerun(Throwable failure) {
+        QueryDeadline deadline = QueryDeadline.current();
+        return deadline != null && deadline.isActive() && SearchTimeouts.isTimeout(failure);
+    }
+
+    /* 요청 객체는 변경될 수 있으므로, key 로 사용할 때는 복사본을 사용한다 */
+    private static MemberSearchCondition copyOf(MemberSearchCondition condition) {
+        MemberSearchCondition copy = new MemberSearchCondition();
+        copy.setUsername(condition.getUsername());
+        copy.setUsernameMatch(condition.getUsernameMatch());
+        copy.setTeamName(condition.getTeamName());
+        copy.setAgeGoe(condition.getAgeGoe());
+        copy.setAgeLoe(condition.getAgeLoe());
+        return copy;
+    }
+
+    /* 같은 조건이라도 tenant 가 다르면 다른 검색이다 */
+    private record SearchKey(String tenant, String operation, MemberSearchCondition condition, Pageable pageable) {
+    }
+}
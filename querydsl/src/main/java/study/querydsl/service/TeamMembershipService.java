@@ -0,0 +1,102 @@
+package study.querydsl.service;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberDTO;
+import study.querydsl.dto.QMemberDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 회원의 팀 이동
+ * - 이동은 짧은 트랜잭션 하나로 처리하고, 낙관적 락 충돌이 나면 maxAttempts 까지 backoff 후 다시 시도한다.
+ * - 팀의 회원 목록 조회는 엔티티나 락 없이 DTO 로만 읽는다.
+ */
+@Service
+public class TeamMembershipService {
+
+    private final EntityManager em;
+    private final JPAQueryFactory queryFactory;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long backoffMillis;
+
+    private final Counter moves;
+    private final Counter conflicts;
+    private final Counter failures;
+
+    public TeamMembershipService(EntityManager em,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${member.team-move.max-attempts:5}") int maxAttempts,
+                                 @Value("${member.team-move.backoff-ms:5}") long backoffMillis) {
+        this.em = em;
+        this.queryFactory = new JPAQueryFactory(em);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+        this.moves = meterRegistry.counter("member.team_move", "result", "success");
+        this.conflicts = meterRegistry.counter("member.team_move", "result", "conflict");
+        this.failures = meterRegistry.counter("member.team_move", "result", "failure");
+    }
+
+    /**
+     * @return 성공할 때까지 시도한 횟수
+     * @throws OptimisticLockingFailureException maxAttempts 번 모두 충돌한 경우
+     */
+    public int moveMember(Long memberId, Long teamId) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    Member findMember = em.find(Member.class, memberId);
+                    if (findMember == null) {
+                        throw new IllegalArgumentException("member not found: " + memberId);
+                    }
+                    findMember.changeTeam(em.getReference(Team.class, teamId));
+                });
+                moves.increment();
+                return attempt;
+            } catch (OptimisticLockingFailureException e) {
+                conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    failures.increment();
+                    throw e;
+                }
+                backoff(attempt);
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<MemberDTO> findTeamMembers(Long teamId) {
+        return queryFactory
+                .select(new QMemberDTO(member.username, member.age))
+                .from(member)
+                .where(member.team.id.eq(teamId))
+                .fetch();
+    }
+
+    /* 동시에 충돌한 트랜잭션들이 같은 시점에 다시 충돌하지 않도록 jitter 를 준다 */
+    private void backoff(int attempt) {
+        long max = backoffMillis * (1L << Math.min(attempt, 6));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(max + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while retrying team move", e);
+        }
+    }
+}
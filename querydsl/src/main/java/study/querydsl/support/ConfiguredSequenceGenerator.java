@@ -0,0 +1,32 @@
+package study.querydsl.support;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * 시퀀스 블록 크기(allocationSize)를 애노테이션이 아닌 설정으로 바꿀 수 있는 SequenceStyleGenerator
+ * hibernate.id.allocation_size.{시퀀스 이름} 설정이 있으면 애노테이션의 increment_size 대신 사용한다.
+ * (spring.jpa.properties.hibernate.id.allocation_size.member_seq: 100)
+ * 시퀀스의 increment 와 같아야 하므로, 이미 만들어진 DB 에서 값을 바꾸려면 시퀀스도 함께 alter 해야 한다.
+ */
+public class ConfiguredSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String ALLOCATION_SIZE_PREFIX = "hibernate.id.allocation_size.";
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        String sequenceName = parameters.getProperty(SEQUENCE_PARAM);
+        Object configured = serviceRegistry.getService(ConfigurationService.class)
+                .getSettings()
+                .get(ALLOCATION_SIZE_PREFIX + sequenceName);
+        if (configured != null) {
+            parameters.setProperty(INCREMENT_PARAM, configured.toString().trim());
+        }
+        super.configure(type, parameters, serviceRegistry);
+    }
+}
@@ -0,0 +1,23 @@
+package study.querydsl.support;
+
+import com.querydsl.core.QueryModifiers;
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import study.querydsl.timeout.QueryDeadline;
+
+/**
+ * 실행 시점에 현재 요청의 남은 시간 예산을 query timeout 으로 거는 JPAQuery
+ * timeout 은 쿼리를 만들 때가 아니라 fetch / count 로 실제 JPA 쿼리를 생성할 때 계산된다.
+ */
+public class DeadlineJPAQuery<T> extends JPAQuery<T> {
+
+    public DeadlineJPAQuery(EntityManager em) {
+        super(em);
+    }
+
+    @Override
+    protected Query createQuery(QueryModifiers modifiers, boolean forCount) {
+        return QueryDeadline.applyTo(super.createQuery(modifiers, forCount));
+    }
+}
@@ -0,0 +1,23 @@
+package study.querydsl.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+
+/**
+ * select / selectFrom / from 으로 만든 쿼리가 모두 DeadlineJPAQuery 가 되도록 하는 JPAQueryFactory
+ */
+public class DeadlineJPAQueryFactory extends JPAQueryFactory {
+
+    private final EntityManager em;
+
+    public DeadlineJPAQueryFactory(EntityManager em) {
+        super(em);
+        this.em = em;
+    }
+
+    @Override
+    public JPAQuery<?> query() {
+        return new DeadlineJPAQuery<Void>(em);
+    }
+}
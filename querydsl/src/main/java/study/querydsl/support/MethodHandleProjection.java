@@ -0,0 +1,47 @@
+package study.querydsl.support;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionException;
+import com.querydsl.core.types.FactoryExpressionBase;
+import com.querydsl.core.types.Visitor;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+
+/**
+ * 생성자 MethodHandle 로 DTO 를 생성하는 Querydsl FactoryExpression
+ * Projections.bean / fields 처럼 행마다 리플렉션으로 setter / field 를 찾지 않고,
+ * 미리 만들어 둔 (Object[])Object 형태의 MethodHandle 을 invokeExact 로 호출한다.
+ */
+public final class MethodHandleProjection<T> extends FactoryExpressionBase<T> {
+
+    private final List<Expression<?>> args;
+    private final MethodHandle factory;
+
+    MethodHandleProjection(Class<? extends T> type, List<Expression<?>> args, MethodHandle factory) {
+        super(type);
+        this.args = List.copyOf(args);
+        this.factory = factory;
+    }
+
+    @Override
+    public List<Expression<?>> getArgs() {
+        return args;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T newInstance(Object... args) {
+        try {
+            Object instance = factory.invokeExact(args);
+            return (T) instance;
+        } catch (Throwable e) {
+            throw new ExpressionException("failed to create " + getType().getName(), e);
+        }
+    }
+
+    @Override
+    public <R, C> R accept(Visitor<R, C> v, C context) {
+        return v.visit(this, context);
+    }
+}
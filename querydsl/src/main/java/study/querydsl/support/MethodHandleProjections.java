@@ -0,0 +1,114 @@
+package study.querydsl.support;
+
+import com.querydsl.core.annotations.QueryProjection;
+import com.querydsl.core.types.Expression;
+import org.springframework.util.ClassUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.RecordComponent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * DTO 클래스의 생성자 파라미터 이름을 Querydsl 경로에 대응시켜 MethodHandleProjection 을 만들고 캐시한다.
+ * - record 는 canonical 생성자를, 일반 클래스는 @QueryProjection 이 붙은 생성자를 사용한다.
+ * - 파라미터 이름은 record component 이름 또는 -parameters 로 컴파일된 생성자 파라미터 이름을 사용한다.
+ */
+public class MethodHandleProjections {
+
+    private final Map<String, Expression<?>> paths;
+    private final Map<Class<?>, MethodHandleProjection<?>> cache = new ConcurrentHashMap<>();
+
+    /**
+     * @param paths DTO 의 프로퍼티 이름 -> 조회할 Querydsl 경로
+     */
+    public MethodHandleProjections(Map<String, Expression<?>> paths) {
+        this.paths = Map.copyOf(paths);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> MethodHandleProjection<T> of(Class<T> type) {
+        return (MethodHandleProjection<T>) cache.computeIfAbsent(type, this::create);
+    }
+
+    /**
+     * projection 이 주어진 경로 중 하나라도 사용하는 지 확인한다. (예: team 조인이 필요한 지)
+     */
+    public static boolean uses(MethodHandleProjection<?> projection, Set<? extends Expression<?>> expressions) {
+        return projection.getArgs().stream().anyMatch(expressions::contains);
+    }
+
+    private MethodHandleProjection<?> create(Class<?> type) {
+        Constructor<?> constructor = findConstructor(type);
+        String[] names = parameterNames(type, constructor);
+        Class<?>[] parameterTypes = constructor.getParameterTypes();
+
+        List<Expression<?>> args = new ArrayList<>(names.length);
+        for (int i = 0; i < names.length; i++) {
+            Expression<?> path = paths.get(names[i]);
+            if (path == null) {
+                throw new IllegalArgumentException("unknown property '" + names[i] + "' of " + type.getName()
+                        + " (supported: " + paths.keySet() + ")");
+            }
+            Class<?> parameterType = ClassUtils.resolvePrimitiveIfNecessary(parameterTypes[i]);
+            if (!parameterType.isAssignableFrom(path.getType())) {
+                throw new IllegalArgumentException("property '" + names[i] + "' of " + type.getName()
+                        + " must be assignable from " + path.getType().getName());
+            }
+            args.add(path);
+        }
+
+        try {
+            constructor.setAccessible(true);
+            MethodHandle factory = MethodHandles.lookup()
+                    .unreflectConstructor(constructor)
+                    .asType(MethodType.genericMethodType(names.length))
+                    .asSpreader(Object[].class, names.length);
+            return new MethodHandleProjection<>(type, args, factory);
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("cannot access constructor of " + type.getName(), e);
+        }
+    }
+
+    private static Constructor<?> findConstructor(Class<?> type) {
+        if (type.isRecord()) {
+            Class<?>[] componentTypes = Arrays.stream(type.getRecordComponents())
+                    .map(RecordComponent::getType)
+                    .toArray(Class<?>[]::new);
+            try {
+                return type.getDeclaredConstructor(componentTypes);
+            } catch (NoSuchMethodException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return Arrays.stream(type.getDeclaredConstructors())
+                .filter(constructor -> constructor.isAnnotationPresent(QueryProjection.class))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(
+                        type.getName() + " must be a record or have a @QueryProjection constructor"));
+    }
+
+    private static String[] parameterNames(Class<?> type, Constructor<?> constructor) {
+        if (type.isRecord()) {
+            return Arrays.stream(type.getRecordComponents())
+                    .map(RecordComponent::getName)
+                    .toArray(String[]::new);
+        }
+        Parameter[] parameters = constructor.getParameters();
+        if (parameters.length > 0 && !parameters[0].isNamePresent()) {
+            throw new IllegalStateException("constructor parameter names of " + type.getName()
+                    + " are not available (compile with -parameters)");
+        }
+        return Arrays.stream(parameters)
+                .map(Parameter::getName)
+                .toArray(String[]::new);
+    }
+}
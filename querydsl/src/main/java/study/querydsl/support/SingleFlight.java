@@ -0,0 +1,103 @@
+package study.querydsl.support;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 같은 key 로 동시에 들어온 호출을 하나로 합친다.
+ * 처음 도착한 호출만 loader 를 실행하고, 실행 중에 도착한 나머지 호출은 그 결과(또는 예외)를 함께 받는다.
+ * 실행이 끝나면 key 를 바로 제거하므로 결과를 캐시하지는 않는다.
+ * 실행한 호출만의 사정(취소, 시간 예산 초과 등)으로 실패한 경우, rerunAfter 를 만족하는 기다리던 호출은 실패를 받지 않고 다시 실행한다.
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder reruns = new LongAdder();
+    private final Predicate<Throwable> rerunAfter;
+
+    public SingleFlight() {
+        this(failure -> false);
+    }
+
+    /**
+     * @param rerunAfter 기다리던 호출이 받은 실패를 버리고 다시 실행할지 (기다리던 호출의 스레드에서 평가된다)
+     */
+    public SingleFlight(Predicate<Throwable> rerunAfter) {
+        this.rerunAfter = rerunAfter;
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        while (true) {
+            CompletableFuture<V> call = new CompletableFuture<>();
+            CompletableFuture<V> existing = inFlight.putIfAbsent(key, call);
+            if (existing == null) {
+                return load(key, call, loader);
+            }
+            coalesced.increment();
+            try {
+                return await(existing);
+            } catch (RuntimeException | Error e) {
+                if (!rerunAfter.test(e)) {
+                    throw e;
+                }
+                reruns.increment();
+            }
+        }
+    }
+
+    /**
+     * loader 를 실제로 실행한 횟수
+     */
+    public long executions() {
+        return executions.sum();
+    }
+
+    /**
+     * 다른 호출의 결과를 공유받은 횟수
+     */
+    public long coalesced() {
+        return coalesced.sum();
+    }
+
+    /**
+     * 실행한 호출이 실패해서 기다리던 호출이 다시 실행한 횟수
+     */
+    public long reruns() {
+        return reruns.sum();
+    }
+
+    private V load(K key, CompletableFuture<V> call, Supplier<V> loader) {
+        executions.increment();
+        try {
+            V value = loader.get();
+            call.complete(value);
+            return value;
+        } catch (Throwable e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    private V await(CompletableFuture<V> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
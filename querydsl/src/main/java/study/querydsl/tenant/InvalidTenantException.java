@@ -0,0 +1,15 @@
+package study.querydsl.tenant;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 형식이 맞지 않는 tenant id
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidTenantException extends RuntimeException {
+
+    public InvalidTenantException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,34 @@
+package study.querydsl.tenant;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * member.tenancy.enabled=true 이면 하나의 JVM 에서 여러 tenant 를 스키마 단위로 나누어 처리한다.
+ * (--spring.profiles.active=local,tenancy)
+ */
+@Configuration
+@ConditionalOnProperty(name = "member.tenancy.enabled", havingValue = "true")
+public class TenancyConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer tenancyHibernateProperties(TenantConnectionProvider connectionProvider) {
+        return properties -> {
+            properties.put(AvailableSettings.MULTI_TENANT_CONNECTION_PROVIDER, connectionProvider);
+            properties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER, new TenantIdentifierResolver());
+        };
+    }
+
+    /* 회원 / 팀 검색, 회원 저장(batch 포함), 변경 로그, export endpoint 에 적용한다 (모두 tenant 별로 처리) */
+    @Bean
+    public FilterRegistrationBean<TenantFilter> tenantFilter(TenantSchemaProvisioner provisioner) {
+        FilterRegistrationBean<TenantFilter> registration = new FilterRegistrationBean<>(new TenantFilter(provisioner));
+        registration.addUrlPatterns("/v1/members", "/v2/members", "/v3/members", "/v4/members",
+                "/members/*", "/v1/teams", "/cdc/*", "/exports/*");
+        return registration;
+    }
+}
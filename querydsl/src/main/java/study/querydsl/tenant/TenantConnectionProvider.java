@@ -0,0 +1,232 @@
+package study.querydsl.tenant;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.jdbc.connections.spi.MultiTenantConnectionProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * tenant 별 스키마(schema-per-tenant)로 커넥션을 나누어 주는 하이버네이트 MultiTenantConnectionProvider
+ * - 기본 tenant 는 애플리케이션의 DataSource(PUBLIC 스키마)를 그대로 사용한다.
+ * - 나머지 tenant 는 처음 요청될 때 해당 스키마를 기본 스키마로 하는 작은 Hikari 풀을 만든다.
+ *   minimumIdle = 0 이므로 요청이 없으면 idleTimeout 후 커넥션을 모두 닫고,
+ *   poolTtl 동안 사용되지 않은 풀은 통째로 닫아서 tenant 가 수백 개여도 활성 tenant 만큼만 커넥션을 유지한다.
+ *   백그라운드 작업(TenantContext.callInBackground)이 가져간 커넥션은 사용으로 치지 않는다.
+ * - 풀을 닫으면 TenantPoolEvictedEvent 를 발행해서 tenant 별로 메모리에 유지하던 상태(통계, 색인, 변경 로그)도 정리하게 한다.
+ * 지표: member.tenancy.pools (gauge), member.tenancy.connections.active (gauge)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "member.tenancy.enabled", havingValue = "true")
+public class TenantConnectionProvider implements MultiTenantConnectionProvider {
+
+    static final String SCHEMA_PREFIX = "TENANT_";
+
+    private final DataSource defaultDataSource;
+    private final DataSourceProperties dataSourceProperties;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int maxPoolSize;
+    private final long idleTimeoutMillis;
+    private final long poolTtlMillis;
+
+    private final Map<String, TenantPool> pools = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "tenant-pool-evictor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public TenantConnectionProvider(DataSource defaultDataSource,
+                                    DataSourceProperties dataSourceProperties,
+                                    ApplicationEventPublisher eventPublisher,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${member.tenancy.max-pool-size:4}") int maxPoolSize,
+                                    @Value("${member.tenancy.idle-timeout-ms:30000}") long idleTimeoutMillis,
+                                    @Value("${member.tenancy.pool-ttl-ms:600000}") long poolTtlMillis) {
+        this.defaultDataSource = defaultDataSource;
+        this.dataSourceProperties = dataSourceProperties;
+        this.eventPublisher = eventPublisher;
+        this.maxPoolSize = maxPoolSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.poolTtlMillis = poolTtlMillis;
+        Gauge.builder("member.tenancy.pools", pools, Map::size)
+                .description("open per-tenant connection pools")
+                .register(meterRegistry);
+        Gauge.builder("member.tenancy.connections.active", this, TenantConnectionProvider::activeConnections)
+                .description("connections in use across all per-tenant pools")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        long interval = Math.max(1_000, poolTtlMillis / 4);
+        evictor.scheduleWithFixedDelay(this::evictIdlePools, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        evictor.shutdownNow();
+        pools.values().forEach(pool -> pool.dataSource().close());
+        pools.clear();
+    }
+
+    public static String schemaOf(String tenant) {
+        return TenantContext.isDefault(tenant) ? "PUBLIC" : SCHEMA_PREFIX + tenant.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * 하이버네이트는 기동 시 메타데이터 조회와 스키마 생성에 사용한다.
+     * 현재 스레드의 tenant 커넥션을 주므로, TenantSchemaProvisioner 가 tenant 스키마에 테이블을 만들 때도 사용된다.
+     */
+    @Override
+    public Connection getAnyConnection() throws SQLException {
+        return getConnection(TenantContext.current());
+    }
+
+    @Override
+    public void releaseAnyConnection(Connection connection) throws SQLException {
+        connection.close();
+    }
+
+    @Override
+    public Connection getConnection(String tenantIdentifier) throws SQLException {
+        if (TenantContext.isDefault(tenantIdentifier)) {
+            return defaultDataSource.getConnection();
+        }
+        TenantPool pool = pools.computeIfAbsent(tenantIdentifier, this::createPool);
+        touch(pool);
+        try {
+            return pool.dataSource().getConnection();
+        } catch (SQLException e) {
+            /* 가져온 직후에 evictor 가 풀을 닫은 경우 새 풀로 한 번 더 시도한다 */
+            if (!pool.dataSource().isClosed()) {
+                throw e;
+            }
+            pools.remove(tenantIdentifier, pool);
+            TenantPool reopened = pools.computeIfAbsent(tenantIdentifier, this::createPool);
+            touch(reopened);
+            return reopened.dataSource().getConnection();
+        }
+    }
+
+    @Override
+    public void releaseConnection(String tenantIdentifier, Connection connection) throws SQLException {
+        connection.close();
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return false;
+    }
+
+    @Override
+    public boolean isUnwrappableAs(Class<?> unwrapType) {
+        return unwrapType.isInstance(this);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (unwrapType.isInstance(this)) {
+            return unwrapType.cast(this);
+        }
+        throw new IllegalArgumentException("cannot unwrap " + getClass().getName() + " as " + unwrapType.getName());
+    }
+
+    public int openPools() {
+        return pools.size();
+    }
+
+    public int activeConnections() {
+        int active = 0;
+        for (TenantPool pool : pools.values()) {
+            if (pool.dataSource().getHikariPoolMXBean() != null) {
+                active += pool.dataSource().getHikariPoolMXBean().getActiveConnections();
+            }
+        }
+        return active;
+    }
+
+    /**
+     * poolTtl 동안 커넥션을 가져가지 않았고 사용 중인 커넥션도 없는 풀을 닫는다.
+     */
+    public void evictIdlePools() {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, TenantPool> entry : pools.entrySet()) {
+            TenantPool pool = entry.getValue();
+            if (now - pool.lastUsedMillis() < poolTtlMillis) {
+                continue;
+            }
+            var mxBean = pool.dataSource().getHikariPoolMXBean();
+            if (mxBean != null && mxBean.getActiveConnections() > 0) {
+                continue;
+            }
+            if (pools.remove(entry.getKey(), pool)) {
+                pool.dataSource().close();
+                log.info("closed idle connection pool of tenant {}", entry.getKey());
+                eventPublisher.publishEvent(new TenantPoolEvictedEvent(entry.getKey()));
+            }
+        }
+    }
+
+    private static void touch(TenantPool pool) {
+        if (!TenantContext.isBackground()) {
+            pool.touch();
+        }
+    }
+
+    private TenantPool createPool(String tenant) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("tenant-" + tenant);
+        config.setJdbcUrl(dataSourceProperties.determineUrl());
+        config.setUsername(dataSourceProperties.determineUsername());
+        config.setPassword(dataSourceProperties.determinePassword());
+        config.setDriverClassName(dataSourceProperties.determineDriverClassName());
+        config.setSchema(schemaOf(tenant));
+        /* 요청이 있을 때만 커넥션을 만들고, 유휴 커넥션은 idleTimeout 후 모두 닫는다 */
+        config.setMinimumIdle(0);
+        config.setMaximumPoolSize(maxPoolSize);
+        config.setIdleTimeout(idleTimeoutMillis);
+        return new TenantPool(new HikariDataSource(config));
+    }
+
+    private static final class TenantPool {
+
+        private final HikariDataSource dataSource;
+        private volatile long lastUsedMillis = System.currentTimeMillis();
+
+        TenantPool(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        HikariDataSource dataSource() {
+            return dataSource;
+        }
+
+        long lastUsedMillis() {
+            return lastUsedMillis;
+        }
+
+        void touch() {
+            lastUsedMillis = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package study.querydsl.tenant;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * 현재 스레드에서 처리 중인 요청의 tenant
+ * 하이버네이트는 세션을 열 때 이 값으로 tenant 를 정하므로(TenantIdentifierResolver), 세션을 열기 전에 설정되어 있어야 한다.
+ * 설정되지 않은 스레드(기동 / 배치 / multi-tenancy 를 사용하지 않는 경우)는 기본 tenant(PUBLIC 스키마)로 동작한다.
+ */
+public final class TenantContext {
+
+    public static final String DEFAULT_TENANT = "public";
+
+    /* 스키마 이름으로 그대로 사용하므로 소문자, 숫자, _ 만 허용한다 */
+    private static final Pattern TENANT_ID = Pattern.compile("[a-z][a-z0-9_]{0,29}");
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+    private static final ThreadLocal<Boolean> BACKGROUND = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    public static String current() {
+        String tenant = CURRENT.get();
+        return tenant != null ? tenant : DEFAULT_TENANT;
+    }
+
+    public static boolean isDefault(String tenant) {
+        return DEFAULT_TENANT.equals(tenant);
+    }
+
+    /**
+     * 요청 헤더 등 외부에서 받은 tenant id 를 검증해서 정규화한다.
+     */
+    public static String normalize(String tenantId) {
+        String normalized = tenantId != null ? tenantId.trim().toLowerCase(Locale.ROOT) : "";
+        if (!TENANT_ID.matcher(normalized).matches()) {
+            throw new InvalidTenantException("invalid tenant id: " + tenantId);
+        }
+        return normalized;
+    }
+
+    public static <T> T call(String tenant, Supplier<T> task) {
+        String previous = CURRENT.get();
+        CURRENT.set(tenant);
+        try {
+            return task.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    public static void run(String tenant, Runnable task) {
+        call(tenant, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * 요청과 상관없는 백그라운드 작업(통계 갱신, 색인 적재)을 tenant 로 실행한다.
+     * 이때 가져간 커넥션은 tenant 풀의 사용으로 치지 않으므로, 요청이 없는 tenant 의 풀은 백그라운드 작업이 있어도 poolTtl 후 닫힌다.
+     */
+    public static <T> T callInBackground(String tenant, Supplier<T> task) {
+        boolean nested = isBackground();
+        BACKGROUND.set(Boolean.TRUE);
+        try {
+            return call(tenant, task);
+        } finally {
+            if (!nested) {
+                BACKGROUND.remove();
+            }
+        }
+    }
+
+    public static void runInBackground(String tenant, Runnable task) {
+        callInBackground(tenant, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    public static boolean isBackground() {
+        return Boolean.TRUE.equals(BACKGROUND.get());
+    }
+
+    /* 요청 전체를 감싸야 하는 TenantFilter 에서만 사용 */
+    static void set(String tenant) {
+        CURRENT.set(tenant);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * 다른 스레드에서 실행할 작업에 현재 스레드의 tenant 를 넘겨준다.
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        String tenant = CURRENT.get();
+        return tenant != null ? () -> call(tenant, task) : task;
+    }
+}
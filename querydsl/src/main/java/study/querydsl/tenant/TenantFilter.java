@@ -0,0 +1,50 @@
+package study.querydsl.tenant;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * X-Tenant-Id 헤더로 요청의 tenant 를 정한다.
+ * 형식이 맞지 않으면 400, 등록되지 않은 tenant 면 404 로 응답한다. (tenant 등록은 TenantAdminController)
+ * open-in-view 가 켜져 있으면 인터셉터 단계에서 세션이 열리므로, 그보다 앞인 필터에서 설정한다.
+ * (WebAsyncTask / 파티션 병렬 조회처럼 다른 스레드에서 실행되는 부분은 TenantContext.propagate 로 넘겨준다)
+ */
+public class TenantFilter extends OncePerRequestFilter {
+
+    public static final String TENANT_HEADER = "X-Tenant-Id";
+
+    private final TenantSchemaProvisioner provisioner;
+
+    public TenantFilter(TenantSchemaProvisioner provisioner) {
+        this.provisioner = provisioner;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String tenant;
+        try {
+            tenant = TenantContext.normalize(request.getHeader(TENANT_HEADER));
+        } catch (InvalidTenantException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "missing or invalid " + TENANT_HEADER + " header");
+            return;
+        }
+        if (!provisioner.activate(tenant)) {
+            response.sendError(HttpStatus.NOT_FOUND.value(), "unknown tenant: " + tenant);
+            return;
+        }
+
+        TenantContext.set(tenant);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+}
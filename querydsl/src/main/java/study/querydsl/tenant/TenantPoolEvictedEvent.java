@@ -0,0 +1,7 @@
+package study.querydsl.tenant;
+
+/**
+ * 사용되지 않는 tenant 의 커넥션 풀을 닫은 후 발행된다. (TenantConnectionProvider)
+ */
+public record TenantPoolEvictedEvent(String tenant) {
+}
@@ -0,0 +1,142 @@
+package study.querydsl.tenant;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import study.querydsl.search.MemberNameIndexLoader;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 등록된 tenant 목록을 관리한다.
+ * - 기본 tenant 와 기동 시 member 테이블이 있는 TENANT_* 스키마를 등록된 tenant 로 본다.
+ * - 새 tenant 는 관리 API(TenantAdminController)로만 등록하며(provision), 이때 스키마와 테이블을 만든다.
+ *   테이블은 하이버네이트 매핑으로부터 만들며(SchemaManager), 이미 있으면 그대로 사용한다.
+ * - 요청이 오면(activate) 등록된 tenant 인지 확인하고, tenant 별 메모리 색인(MemberNameIndex)이 없으면 적재한다.
+ *   커넥션 풀이 닫히면 MemberNameIndex 도 tenant 색인을 버리므로, 다시 요청될 때 색인을 다시 적재한다.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "member.tenancy.enabled", havingValue = "true")
+public class TenantSchemaProvisioner {
+
+    private final DataSource defaultDataSource;
+    private final EntityManagerFactory emf;
+    private final MemberNameIndexLoader memberNameIndexLoader;
+
+    private final Set<String> provisioned = ConcurrentHashMap.newKeySet();
+    /* 색인을 적재했고 아직 풀이 닫히지 않은 tenant */
+    private final Set<String> indexed = ConcurrentHashMap.newKeySet();
+
+    public TenantSchemaProvisioner(DataSource defaultDataSource,
+                                   EntityManagerFactory emf,
+                                   MemberNameIndexLoader memberNameIndexLoader) {
+        this.defaultDataSource = defaultDataSource;
+        this.emf = emf;
+        this.memberNameIndexLoader = memberNameIndexLoader;
+        provisioned.add(TenantContext.DEFAULT_TENANT);
+        indexed.add(TenantContext.DEFAULT_TENANT);
+    }
+
+    @PostConstruct
+    public void discover() {
+        String prefix = TenantConnectionProvider.SCHEMA_PREFIX;
+        try (Connection connection = defaultDataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("select table_schema from information_schema.tables"
+                     + " where left(table_schema, " + prefix.length() + ") = ? and table_name = 'MEMBER'")) {
+            statement.setString(1, prefix);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    provisioned.add(rs.getString(1).substring(prefix.length()).toLowerCase(Locale.ROOT));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("failed to discover tenant schemas", e);
+        }
+        log.info("{} tenants provisioned", provisioned.size());
+    }
+
+    public boolean isProvisioned(String tenant) {
+        return provisioned.contains(tenant);
+    }
+
+    /**
+     * tenant 의 스키마와 테이블을 만들어 등록한다. 이미 등록된 tenant 면 아무것도 하지 않는다.
+     *
+     * @return 새로 등록했으면 true
+     */
+    public boolean provision(String tenant) {
+        boolean created = !provisioned.contains(tenant) && createIfAbsent(tenant);
+        activate(tenant);
+        return created;
+    }
+
+    /**
+     * 요청을 처리하기 전에 호출한다. 색인이 없으면 별도 스레드에서 적재를 시작한다.
+     *
+     * @return 등록되지 않은 tenant 면 false
+     */
+    public boolean activate(String tenant) {
+        if (!provisioned.contains(tenant)) {
+            return false;
+        }
+        if (indexed.add(tenant)) {
+            memberNameIndexLoader.load(tenant);
+        }
+        return true;
+    }
+
+    @EventListener
+    public void onPoolEvicted(TenantPoolEvictedEvent event) {
+        indexed.remove(event.tenant());
+    }
+
+    private synchronized boolean createIfAbsent(String tenant) {
+        if (provisioned.contains(tenant)) {
+            return false;
+        }
+        String schema = TenantConnectionProvider.schemaOf(tenant);
+        boolean created = createSchemaIfAbsent(schema);
+        if (created) {
+            TenantContext.run(tenant, () -> emf.unwrap(SessionFactoryImplementor.class)
+                    .getSchemaManager()
+                    .exportMappedObjects(false));
+            log.info("provisioned schema {} for tenant {}", schema, tenant);
+        }
+        provisioned.add(tenant);
+        return true;
+    }
+
+    /**
+     * @return member 테이블이 없어서 새로 만들어야 하면 true
+     */
+    private boolean createSchemaIfAbsent(String schema) {
+        try (Connection connection = defaultDataSource.getConnection()) {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("create schema if not exists " + schema);
+            }
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "select count(*) from information_schema.tables where table_schema = ? and table_name = 'MEMBER'")) {
+                statement.setString(1, schema);
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    return rs.getLong(1) == 0;
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("failed to provision schema " + schema, e);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package study.querydsl.timeout;
+
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.Query;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.query.spi.QueryImplementor;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+/**
+ * 요청 하나에 주어진 쿼리 실행 시간 예산
+ * call() 로 현재 스레드에 묶어 두면, 그 안에서 실행되는 쿼리에 남은 시간이 timeout 으로 걸린다. (DeadlineJPAQuery)
+ * JDBC timeout 은 초 단위이므로, 초 단위 이하의 마감과 클라이언트 연결 끊김은 cancel() 로 실행 중인 statement 를 취소해서 처리한다.
+ */
+public final class QueryDeadline {
+
+    public static final String TIMEOUT_HINT = "jakarta.persistence.query.timeout";
+
+    private static final ThreadLocal<QueryDeadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+    /* 이 예산으로 실행된 쿼리를 취소하는 방법 (세션 / statement) */
+    private final Queue<Runnable> cancellers = new ConcurrentLinkedQueue<>();
+    private volatile boolean cancelled;
+
+    private QueryDeadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static QueryDeadline after(Duration budget) {
+        return new QueryDeadline(System.nanoTime() + budget.toNanos());
+    }
+
+    /**
+     * 현재 스레드에 묶인 예산, 없으면 null
+     */
+    public static QueryDeadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 다른 스레드에서 실행할 작업에 현재 스레드의 예산을 넘겨준다.
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        QueryDeadline deadline = CURRENT.get();
+        return deadline != null ? () -> deadline.call(task) : task;
+    }
+
+    /**
+     * JPA 쿼리에 남은 시간을 timeout hint 로 건다. 현재 스레드에 예산이 없으면 그대로 둔다.
+     */
+    public static Query applyTo(Query query) {
+        QueryDeadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return query;
+        }
+        query.setHint(TIMEOUT_HINT, deadline.timeoutMillis());
+        deadline.register(query);
+        return query;
+    }
+
+    /**
+     * JDBC statement 를 직접 실행하는 경우 (forEachRow 등)
+     */
+    public static void applyTo(Statement statement) throws SQLException {
+        QueryDeadline deadline = CURRENT.get();
+        if (deadline == null) {
+            return;
+        }
+        statement.setQueryTimeout(deadline.timeoutMillis() / 1000);
+        deadline.addCanceller(() -> {
+            try {
+                statement.cancel();
+            } catch (SQLException ignored) {
+                // 이미 끝나서 닫힌 statement
+            }
+        });
+    }
+
+    public <T> T call(Supplier<T> task) {
+        QueryDeadline previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return task.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 취소되지 않았고 아직 마감 전인지
+     */
+    public boolean isActive() {
+        return !cancelled && deadlineNanos - System.nanoTime() > 0;
+    }
+
+    /**
+     * 실행 중인 쿼리를 취소하고, 이후의 쿼리는 실행하지 않는다.
+     */
+    public void cancel() {
+        cancelled = true;
+        Runnable canceller;
+        while ((canceller = cancellers.poll()) != null) {
+            canceller.run();
+        }
+    }
+
+    /**
+     * JDBC timeout 은 초 단위이므로 남은 시간을 초 단위로 올림한다.
+     * 이미 마감이 지났거나 취소되었으면 쿼리를 실행하지 않는다.
+     */
+    int timeoutMillis() {
+        long remaining = deadlineNanos - System.nanoTime();
+        if (cancelled || remaining <= 0) {
+            throw new QueryDeadlineExceededException(cancelled ? "query cancelled" : "query deadline exceeded");
+        }
+        long seconds = (remaining + 999_999_999L) / 1_000_000_000L;
+        return (int) Math.min(Integer.MAX_VALUE, seconds * 1000);
+    }
+
+    private void register(Query query) {
+        SharedSessionContractImplementor session;
+        try {
+            session = query.unwrap(QueryImplementor.class).getSession();
+        } catch (PersistenceException e) {
+            return;
+        }
+        addCanceller(() -> {
+            try {
+                session.getJdbcCoordinator().cancelLastQuery();
+            } catch (RuntimeException ignored) {
+                // 실행 중인 statement 가 없거나 이미 닫힌 경우
+            }
+        });
+    }
+
+    private void addCanceller(Runnable canceller) {
+        cancellers.add(canceller);
+        /* 등록 직전에 취소되었으면 직접 취소한다 */
+        if (cancelled) {
+            cancel();
+        }
+    }
+}
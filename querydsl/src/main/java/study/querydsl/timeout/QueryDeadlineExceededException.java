@@ -0,0 +1,11 @@
+package study.querydsl.timeout;
+
+/**
+ * 요청의 쿼리 시간 예산을 다 써서(또는 클라이언트가 연결을 끊어서) 더 이상 쿼리를 실행하지 않는 경우
+ */
+public class QueryDeadlineExceededException extends RuntimeException {
+
+    public QueryDeadlineExceededException(String message) {
+        super(message);
+    }
+}
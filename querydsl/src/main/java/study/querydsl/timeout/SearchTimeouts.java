@@ -0,0 +1,176 @@
+package study.querydsl.timeout;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import study.querydsl.admission.AdmissionRejectedException;
+import study.querydsl.jfr.JfrRepositoryAspect;
+import study.querydsl.tenant.TenantContext;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * 검색 endpoint 별 시간 예산
+ * 검색을 WebAsyncTask 로 전용 executor 에서 실행하고, 예산이 끝나거나 클라이언트가 연결을 끊으면 실행 중인 statement 를 취소한다.
+ * - executor 의 스레드 수는 커넥션 풀 크기와 같고, 대기열이 가득 차면 AdmissionRejectedException(429)으로 거절한다.
+ * - 예산은 검색이 executor 에서 실제로 시작될 때부터 QueryDeadline 으로 검색 스레드에 묶여서,
+ *   각 쿼리의 jakarta.persistence.query.timeout 으로 전달된다.
+ * - 대기열에서 max-queue-wait 보다 오래 기다린 검색은 시작하지 않는다. 요청 전체의 timeout 은 max-queue-wait + 예산이다.
+ * 지표: member.search.timeouts (counter, tag: endpoint, reason = queue | deadline | disconnect | statement)
+ */
+@Component
+public class SearchTimeouts {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Duration> budgets;
+    private final Duration maxQueueWait;
+    private final ThreadPoolTaskExecutor executor;
+
+    public SearchTimeouts(MeterRegistry meterRegistry,
+                          @Value("${member.timeout.v1:2s}") Duration v1,
+                          @Value("${member.timeout.v2:3s}") Duration v2,
+                          @Value("${member.timeout.v3:5s}") Duration v3,
+                          @Value("${member.timeout.max-queue-wait:1s}") Duration maxQueueWait,
+                          @Value("${spring.datasource.hikari.maximum-pool-size:10}") int threads,
+                          @Value("${member.timeout.queue-capacity:100}") int queueCapacity) {
+        this.meterRegistry = meterRegistry;
+        this.budgets = Map.of(
+                "/v1/members", v1,
+                "/v2/members", v2,
+                "/v3/members", v3);
+        this.maxQueueWait = maxQueueWait;
+        /* 커넥션보다 많은 검색을 동시에 실행해도 커넥션을 기다릴 뿐이므로 커넥션 풀 크기만큼만 실행한다 */
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(threads);
+        this.executor.setMaxPoolSize(threads);
+        this.executor.setQueueCapacity(queueCapacity);
+        this.executor.setThreadNamePrefix("member-search-");
+        this.executor.setRejectedExecutionHandler((task, pool) -> {
+            throw new AdmissionRejectedException("member search queue is full");
+        });
+        this.executor.initialize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public Duration budgetOf(String endpoint) {
+        Duration budget = budgets.get(endpoint);
+        if (budget == null) {
+            throw new IllegalArgumentException("no timeout budget for " + endpoint);
+        }
+        return budget;
+    }
+
+    public <T> WebAsyncTask<T> withBudget(String endpoint, Supplier<T> search) {
+        BudgetedSearch<T> budgeted = budgeted(endpoint, search);
+        WebAsyncTask<T> task = new WebAsyncTask<>(maxQueueWait.plus(budgetOf(endpoint)).toMillis(), executor, budgeted);
+        task.onTimeout(budgeted::timeout);
+        task.onError(budgeted::disconnect);
+        return task;
+    }
+
+    <T> BudgetedSearch<T> budgeted(String endpoint, Supplier<T> search) {
+        /* 검색은 다른 스레드에서 실행되므로 요청의 tenant 를 넘겨준다 */
+        return new BudgetedSearch<>(endpoint, budgetOf(endpoint), TenantContext.propagate(search));
+    }
+
+    /**
+     * executor 에서 실행될 검색 하나
+     * 예산(QueryDeadline)은 실행이 시작될 때 만들어지고, 그 전후에 timeout / 연결 끊김이 일어나면 취소된다.
+     */
+    class BudgetedSearch<T> implements Callable<T> {
+
+        private final String endpoint;
+        private final Duration budget;
+        private final Supplier<T> search;
+        private final long submittedNanos = System.nanoTime();
+        private final AtomicReference<QueryDeadline> deadline = new AtomicReference<>();
+        private volatile boolean stopped;
+
+        BudgetedSearch(String endpoint, Duration budget, Supplier<T> search) {
+            this.endpoint = endpoint;
+            this.budget = budget;
+            this.search = search;
+        }
+
+        @Override
+        public T call() {
+            if (System.nanoTime() - submittedNanos > maxQueueWait.toNanos()) {
+                timeouts(endpoint, "queue").increment();
+                throw new QueryDeadlineExceededException(endpoint + " waited more than "
+                        + maxQueueWait.toMillis() + "ms to start");
+            }
+            QueryDeadline started = QueryDeadline.after(budget);
+            deadline.set(started);
+            /* 시작하기 전에 timeout / 연결 끊김이 일어난 경우 (stop() 과 순서가 바뀌어도 둘 중 하나는 상대를 본다) */
+            if (stopped) {
+                started.cancel();
+                throw new QueryDeadlineExceededException(endpoint + " was stopped before it started");
+            }
+            try {
+                return JfrRepositoryAspect.recordAsync("GET " + endpoint, () -> started.call(search));
+            } catch (RuntimeException e) {
+                /* 예산 종료 / 연결 끊김으로 취소한 경우는 이미 기록했다 */
+                if (!started.isCancelled() && isTimeout(e)) {
+                    timeouts(endpoint, "statement").increment();
+                }
+                throw e;
+            }
+        }
+
+        T timeout() {
+            stop();
+            timeouts(endpoint, "deadline").increment();
+            throw new QueryDeadlineExceededException(endpoint + " exceeded its " + budget.toMillis() + "ms budget");
+        }
+
+        T disconnect() {
+            stop();
+            timeouts(endpoint, "disconnect").increment();
+            throw new QueryDeadlineExceededException(endpoint + " was cancelled by the client");
+        }
+
+        private void stop() {
+            stopped = true;
+            QueryDeadline running = deadline.get();
+            if (running != null) {
+                running.cancel();
+            }
+        }
+    }
+
+    /**
+     * JDBC timeout 이나 cancel 로 중단된 쿼리의 예외인지 (Hibernate / JPA / Spring 변환 예외 모두)
+     */
+    public static boolean isTimeout(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof QueryDeadlineExceededException
+                    || cause instanceof jakarta.persistence.QueryTimeoutException
+                    || cause instanceof org.hibernate.QueryTimeoutException
+                    || cause instanceof org.springframework.dao.QueryTimeoutException
+                    || cause instanceof java.sql.SQLTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Counter timeouts(String endpoint, String reason) {
+        return Counter.builder("member.search.timeouts")
+                .tag("endpoint", endpoint)
+                .tag("reason", reason)
+                .description("member searches stopped by their time budget")
+                .register(meterRegistry);
+    }
+}
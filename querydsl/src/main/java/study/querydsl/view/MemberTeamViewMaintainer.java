@@ -0,0 +1,205 @@
+package study.querydsl.view;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Member / Team 의 변경을 따라서 member_team_view 를 증분 갱신한다.
+ * - flush 중 발생한 Hibernate 이벤트에서는 변경 내용만 세션별로 모아두고,
+ *   커밋 직전(BeforeTransactionCompletionProcess)에 같은 트랜잭션에서 JDBC batch 로 한 번에 반영한다.
+ * - 회원 insert / update(팀 이동 포함)는 member_id 기준 merge, 회원 delete 는 delete,
+ *   팀 이름 변경은 해당 팀의 모든 row 를 update 한 번으로 반영한다.
+ * 따라서 트랜잭션 안에서 아직 커밋하지 않은 변경은 view 에 보이지 않는다.
+ * Hibernate 이벤트를 거치지 않는 벌크 연산 후에는 rebuild() 로 다시 만들어야 한다.
+ * 리스너 등록이 빠지면 view 가 조용히 낡으므로, lazy-initialization(fast profile)에서도 기동 시 바로 생성한다.
+ */
+@Component
+@Lazy(false)
+public class MemberTeamViewMaintainer implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    /* H2 merge 문법: member_id 가 있으면 update, 없으면 insert. 팀 이름은 같은 트랜잭션의 team 테이블에서 읽는다 */
+    private static final String MERGE_MEMBER = """
+            merge into member_team_view (member_id, username, username_lower, age, team_id, team_name) key (member_id)
+            select ?, ?, ?, ?, ?, (select t.name from team t where t.id = ?)""";
+    private static final String DELETE_MEMBER = "delete from member_team_view where member_id = ?";
+    private static final String RENAME_TEAM = "update member_team_view set team_name = ? where team_id = ?";
+
+    private final EntityManagerFactory emf;
+    private final EntityManager em;
+    private final Map<SharedSessionContractImplementor, PendingChanges> pending = new ConcurrentHashMap<>();
+
+    public MemberTeamViewMaintainer(EntityManagerFactory emf, EntityManager em) {
+        this.emf = emf;
+        this.em = em;
+    }
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    /**
+     * member left join team 으로 view 전체를 다시 만든다.
+     */
+    @Transactional
+    public int rebuild() {
+        em.createNativeQuery("delete from member_team_view").executeUpdate();
+        return em.createNativeQuery("""
+                insert into member_team_view (member_id, username, username_lower, age, team_id, team_name)
+                select m.member_id, m.username, m.username_lower, m.age, m.team_id, t.name
+                from member m left join team t on m.team_id = t.id""").executeUpdate();
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member member) {
+            pendingChanges(event.getSession()).upsert(member);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof Member member) {
+            pendingChanges(event.getSession()).upsert(member);
+        } else if (event.getEntity() instanceof Team team && isDirty(event, "name")) {
+            pendingChanges(event.getSession()).rename(team.getId(), team.getName());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member member) {
+            pendingChanges(event.getSession()).delete(member.getId());
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    /* 세션(트랜잭션)마다 처음 변경이 생길 때 커밋 전 / 후 처리를 한 번만 등록한다 */
+    private PendingChanges pendingChanges(EventSource session) {
+        return pending.computeIfAbsent(session, key -> {
+            PendingChanges changes = new PendingChanges();
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) completing ->
+                    completing.doWork(changes::apply));
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) (success, completed) ->
+                    pending.remove(completed));
+            return changes;
+        });
+    }
+
+    private static boolean isDirty(PostUpdateEvent event, String property) {
+        int[] dirty = event.getDirtyProperties();
+        if (dirty == null) {
+            return true;
+        }
+        String[] names = event.getPersister().getPropertyNames();
+        for (int index : dirty) {
+            if (names[index].equals(property)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private record MemberRow(Long memberId, String username, String usernameLower, int age, Long teamId) {
+    }
+
+    /**
+     * 같은 회원이 한 트랜잭션에서 여러 번 바뀌면 마지막 상태만 반영한다. (삭제는 row = null)
+     */
+    private static class PendingChanges {
+
+        private final Map<Long, MemberRow> members = new LinkedHashMap<>();
+        private final Map<Long, String> renamedTeams = new LinkedHashMap<>();
+
+        synchronized void upsert(Member member) {
+            Long teamId = member.getTeam() != null ? member.getTeam().getId() : null;
+            members.put(member.getId(), new MemberRow(member.getId(), member.getUsername(),
+                    member.getUsernameLower(), member.getAge(), teamId));
+        }
+
+        synchronized void delete(Long memberId) {
+            members.put(memberId, null);
+        }
+
+        synchronized void rename(Long teamId, String name) {
+            renamedTeams.put(teamId, name);
+        }
+
+        synchronized void apply(Connection connection) throws SQLException {
+            try (PreparedStatement merge = connection.prepareStatement(MERGE_MEMBER);
+                 PreparedStatement delete = connection.prepareStatement(DELETE_MEMBER);
+                 PreparedStatement rename = connection.prepareStatement(RENAME_TEAM)) {
+                for (Map.Entry<Long, MemberRow> entry : members.entrySet()) {
+                    MemberRow row = entry.getValue();
+                    if (row == null) {
+                        delete.setLong(1, entry.getKey());
+                        delete.addBatch();
+                        continue;
+                    }
+                    merge.setLong(1, row.memberId());
+                    merge.setString(2, row.username());
+                    merge.setString(3, row.usernameLower());
+                    merge.setInt(4, row.age());
+                    setNullableLong(merge, 5, row.teamId());
+                    setNullableLong(merge, 6, row.teamId());
+                    merge.addBatch();
+                }
+                for (Map.Entry<Long, String> entry : renamedTeams.entrySet()) {
+                    rename.setString(1, entry.getValue());
+                    rename.setLong(2, entry.getKey());
+                    rename.addBatch();
+                }
+                merge.executeBatch();
+                delete.executeBatch();
+                rename.executeBatch();
+            }
+            members.clear();
+            renamedTeams.clear();
+        }
+
+        private static void setNullableLong(PreparedStatement statement, int index, Long value) throws SQLException {
+            if (value != null) {
+                statement.setLong(index, value);
+            } else {
+                statement.setNull(index, Types.BIGINT);
+            }
+        }
+    }
+}
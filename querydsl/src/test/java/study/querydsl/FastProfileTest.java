@@ -0,0 +1,114 @@
+package study.querydsl;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.cdc.ChangeLog;
+import study.querydsl.cdc.ChangeLogs;
+import study.querydsl.cdc.ChangeRecord;
+import study.querydsl.cdc.ChangeType;
+import study.querydsl.entity.Member;
+import study.querydsl.search.MemberNameIndex;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * fast profile(lazy-initialization)에서도 커밋된 변경을 따라가는 Hibernate 리스너가 등록되어야 한다.
+ * 리스너 빈은 주입받지 않는다. (주입받으면 그 때 생성되어 등록되므로 확인할 수 없다)
+ * 빈 메모리 DB 는 validate 할 수 없으므로 스키마만 만들고, 다른 테스트 컨텍스트와 DB / 변경 로그를 나누어 쓴다.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.hibernate.ddl-auto=create",
+        "spring.datasource.url=jdbc:h2:mem:fast;DB_CLOSE_DELAY=-1",
+        "member.cdc.dir=build/cdc-fast"})
+@ActiveProfiles({"test", "mem", "fast"})
+class FastProfileTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    ChangeLogs changeLogs;
+
+    @Autowired
+    MemberNameIndex memberNameIndex;
+
+    @AfterEach
+    public void cleanUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.createNativeQuery("delete from member_team_view").executeUpdate();
+            em.createQuery("delete from Member").executeUpdate();
+        });
+    }
+
+    @Test
+    @DisplayName("fast profile 에서도 커밋된 회원 변경이 변경 로그에 남는다.")
+    public void changeLogCapturesCommittedChanges() {
+        ChangeLog changeLog = changeLogs.current();
+        long from = changeLog.nextOffset();
+
+        Long memberId = save("fastMember", 10);
+
+        List<ChangeRecord> changes = changeLog.read(from, 100).changes();
+        assertThat(changes)
+                .extracting(ChangeRecord::type, ChangeRecord::entity, ChangeRecord::entityId)
+                .containsExactly(tuple(ChangeType.INSERT, "Member", memberId));
+    }
+
+    @Test
+    @DisplayName("fast profile 에서도 커밋된 회원 변경이 member_team_view 에 반영된다.")
+    public void viewFollowsCommittedChanges() {
+        Long memberId = save("fastMember", 10);
+        assertThat(viewUsername(memberId)).containsExactly("fastMember");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                em.find(Member.class, memberId).setUsername("renamedMember"));
+        assertThat(viewUsername(memberId)).containsExactly("renamedMember");
+    }
+
+    @Test
+    @DisplayName("fast profile 에서도 기동 후 커밋된 회원 변경이 이름 색인에 반영된다.")
+    public void nameIndexFollowsCommittedChanges() throws InterruptedException {
+        /* 기동 시 적재(ApplicationReadyEvent)가 끝난 후의 변경이어야 한다 */
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!memberNameIndex.isReady() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(memberNameIndex.isReady()).isTrue();
+
+        Long memberId = save("fastIndexed", 10);
+        assertThat(memberNameIndex.search("stindex", 10)).containsExactly(memberId);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                em.remove(em.find(Member.class, memberId)));
+        assertThat(memberNameIndex.search("stindex", 10)).isEmpty();
+    }
+
+    private List<?> viewUsername(Long memberId) {
+        return new TransactionTemplate(transactionManager).execute(status -> em.createNativeQuery(
+                        "select username from member_team_view where member_id = ?")
+                .setParameter(1, memberId)
+                .getResultList());
+    }
+
+    private Long save(String username, int age) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            Member member = new Member(username, age);
+            em.persist(member);
+            return member.getId();
+        });
+    }
+}
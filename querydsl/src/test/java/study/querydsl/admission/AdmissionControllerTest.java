@@ -0,0 +1,69 @@
+package study.querydsl.admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdmissionControllerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    /* heavy >= 100, max 10,000, 동시에 1개, 대기 50ms */
+    private final AdmissionController admissionController = new AdmissionController(meterRegistry, 100, 10_000, 1, 50);
+
+    @Test
+    @DisplayName("무거운 검색이 실행 중이어도 가벼운 검색은 바로 실행되고, 다른 무거운 검색은 대기 후 거절된다.")
+    public void capHeavyQueries() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> heavy = executor.submit(() -> admissionController.admit("/v1", new QueryCost(500, 0), () -> {
+                running.countDown();
+                await(release);
+                return "heavy";
+            }));
+            assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThat(admissionController.admit("/v1", new QueryCost(1, 10), () -> "cheap")).isEqualTo("cheap");
+            assertThatThrownBy(() -> admissionController.admit("/v1", new QueryCost(500, 0), () -> "second"))
+                    .isInstanceOf(AdmissionRejectedException.class);
+            /* 한도는 endpoint 별로 따로 관리한다 */
+            assertThat(admissionController.admit("/v2", new QueryCost(500, 0), () -> "other")).isEqualTo("other");
+
+            release.countDown();
+            assertThat(heavy.get(5, TimeUnit.SECONDS)).isEqualTo("heavy");
+            assertThat(admissionController.admit("/v1", new QueryCost(500, 0), () -> "third")).isEqualTo("third");
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+
+        assertThat(meterRegistry.counter("member.admission", "endpoint", "/v1", "class", "heavy", "outcome", "rejected").count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("예상 비용이 max-cost 이상이면 실행하지 않고 바로 거절한다.")
+    public void rejectTooBroad() {
+        assertThatThrownBy(() -> admissionController.admit("/v1", new QueryCost(10_000, 0), () -> {
+            throw new AssertionError("must not run");
+        })).isInstanceOf(AdmissionRejectedException.class).hasMessageContaining("too broad");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
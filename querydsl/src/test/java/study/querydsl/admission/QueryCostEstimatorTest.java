@@ -0,0 +1,74 @@
+package study.querydsl.admission;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.UsernameMatch;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryCostEstimatorTest {
+
+    /* 회원 100,000 명, teamA 1,000 명 / teamB 99,000 명, 나이 0 ~ 99 균등 */
+    private final MemberTableStats.Snapshot stats = new MemberTableStats.Snapshot(100_000,
+            Map.of("teamA", 1_000L, "teamB", 99_000L), uniformAges());
+
+    @Test
+    @DisplayName("조건이 없으면 전체를 읽고 반환하고, 페이지 크기가 있으면 반환 행 수만 줄어든다.")
+    public void noFilter() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        assertThat(QueryCostEstimator.estimate(stats, condition, null)).isEqualTo(new QueryCost(100_000, 100_000));
+        assertThat(QueryCostEstimator.estimate(stats, condition, 20)).isEqualTo(new QueryCost(20, 100_000));
+    }
+
+    @Test
+    @DisplayName("인덱스를 사용하는 조건은 읽는 행 수도 줄이고, 부분 일치 조건은 반환 행 수만 줄인다.")
+    public void selectivity() {
+        MemberSearchCondition smallTeam = new MemberSearchCondition();
+        smallTeam.setTeamName("teamA");
+        smallTeam.setAgeGoe(50);
+        assertThat(QueryCostEstimator.estimate(stats, smallTeam, null)).isEqualTo(new QueryCost(500, 1_000));
+
+        MemberSearchCondition ageOnly = new MemberSearchCondition();
+        ageOnly.setAgeGoe(90);
+        assertThat(QueryCostEstimator.estimate(stats, ageOnly, null)).isEqualTo(new QueryCost(10_000, 10_000));
+        ageOnly.setAgeLoe(90);
+        assertThat(QueryCostEstimator.estimate(stats, ageOnly, 20)).isEqualTo(new QueryCost(20, 1_000));
+
+        MemberSearchCondition exact = new MemberSearchCondition();
+        exact.setUsername("member1");
+        assertThat(QueryCostEstimator.estimate(stats, exact, null)).isEqualTo(new QueryCost(1, 1));
+
+        MemberSearchCondition contains = new MemberSearchCondition();
+        contains.setUsername("ab");
+        contains.setUsernameMatch(UsernameMatch.CONTAINS);
+        QueryCost containsCost = QueryCostEstimator.estimate(stats, contains, null);
+        assertThat(containsCost.estimatedRows()).isEqualTo(148);
+        assertThat(containsCost.scannedRows()).isEqualTo(100_000);
+
+        MemberSearchCondition unknownTeam = new MemberSearchCondition();
+        unknownTeam.setTeamName("teamZ");
+        assertThat(QueryCostEstimator.estimate(stats, unknownTeam, null)).isEqualTo(new QueryCost(0, 0));
+    }
+
+    @Test
+    @DisplayName("통계가 아직 없으면 비어 있는 테이블이 아니라 전체를 읽는 검색으로 추정한다.")
+    public void unknownStats() {
+        assertThat(QueryCostEstimator.unknown(100_000, null)).isEqualTo(new QueryCost(100_000, 100_000));
+        assertThat(QueryCostEstimator.unknown(100_000, 20)).isEqualTo(new QueryCost(20, 100_000));
+        assertThat(MemberTableStats.Snapshot.UNKNOWN.known()).isFalse();
+        assertThat(stats.known()).isTrue();
+    }
+
+    private static TreeMap<Integer, Long> uniformAges() {
+        TreeMap<Integer, Long> ages = new TreeMap<>();
+        for (int age = 0; age < 100; age++) {
+            ages.put(age, 1_000L);
+        }
+        return ages;
+    }
+}
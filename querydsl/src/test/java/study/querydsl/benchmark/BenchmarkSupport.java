@@ -0,0 +1,52 @@
+package study.querydsl.benchmark;
+
+import java.util.function.Supplier;
+
+/**
+ * 벤치마크 테스트에서 공통으로 사용하는 간단한 측정 도구
+ * (JMH 처럼 정밀하지는 않으므로, 같은 JVM 에서 실행한 결과끼리의 상대 비교 용도로만 사용한다)
+ */
+public final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    public static int intProperty(String name, int defaultValue) {
+        return Integer.getInteger("benchmark." + name, defaultValue);
+    }
+
+    public static String property(String name, String defaultValue) {
+        return System.getProperty("benchmark." + name, defaultValue);
+    }
+
+    /**
+     * warmup 회 만큼 먼저 실행한 후, iterations 회 실행한 평균 시간(ns)을 반환한다.
+     */
+    public static long measure(String name, int warmup, int iterations, Supplier<?> task) {
+        Object sink = null;
+        for (int i = 0; i < warmup; i++) {
+            sink = task.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink = task.get();
+        }
+        long avg = (System.nanoTime() - start) / iterations;
+        System.out.printf("[benchmark] %-45s avg = %,12d ns (%d iterations, last = %s)%n",
+                name, avg, iterations, summary(sink));
+        return avg;
+    }
+
+    public static void report(String name, long operations, long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.printf("[benchmark] %-45s %,d ops in %,.1f ms -> %,.0f ops/s%n",
+                name, operations, elapsedNanos / 1_000_000.0, operations / seconds);
+    }
+
+    private static String summary(Object value) {
+        if (value instanceof java.util.Collection<?> collection) {
+            return collection.size() + " rows";
+        }
+        return String.valueOf(value);
+    }
+}
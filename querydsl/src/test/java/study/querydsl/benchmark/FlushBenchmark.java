@@ -0,0 +1,75 @@
+package study.querydsl.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SelfDirtinessTracker;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 영속성 컨텍스트에 엔티티가 많이 올라와 있을 때의 flush 시간 측정
+ * - 변경이 없는 flush / 1% 만 변경한 flush 모두, 향상 전에는 엔티티마다 스냅샷 전체를 비교한다.
+ * - 바이트코드 향상(dirty tracking) 후에는 setter 에서 기록한 변경 필드만 확인한다.
+ * before: ./gradlew benchmark -PnoEnhancement --tests '*FlushBenchmark' -Dbenchmark.entities=100000
+ * after : ./gradlew benchmark --tests '*FlushBenchmark' -Dbenchmark.entities=100000
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Transactional
+class FlushBenchmark {
+
+    @Autowired
+    EntityManager em;
+
+    @Test
+    @DisplayName("관리 중인 엔티티가 많을 때 바이트코드 향상 여부에 따른 flush 시간 비교")
+    public void flushManagedEntities() {
+        int entities = BenchmarkSupport.intProperty("entities", 100_000);
+        boolean enhanced = SelfDirtinessTracker.class.isAssignableFrom(Member.class);
+        String mode = enhanced ? "enhanced" : "not enhanced";
+
+        Team team = new Team("teamA");
+        em.persist(team);
+        for (int i = 0; i < entities; i++) {
+            em.persist(new Member("member" + i, i % 100, team));
+            if (i % 1_000 == 999) {
+                em.flush();
+                em.clear();
+                team = em.getReference(Team.class, team.getId());
+            }
+        }
+        em.flush();
+        em.clear();
+
+        /* 모든 회원을 영속성 컨텍스트에 올린다 (flush 때마다 dirty checking 대상) */
+        List<Member> members = em.createQuery("select m from Member m", Member.class).getResultList();
+        assertThat(members).hasSize(entities);
+
+        long nothingChanged = BenchmarkSupport.measure("flush, no changes (" + mode + ")", 3, 10, () -> {
+            em.flush();
+            return entities;
+        });
+
+        int[] round = {0};
+        long onePercentChanged = BenchmarkSupport.measure("flush, 1% changed (" + mode + ")", 3, 10, () -> {
+            round[0]++;
+            for (int i = 0; i < members.size(); i += 100) {
+                members.get(i).setAge(round[0]);
+            }
+            em.flush();
+            return members.size() / 100;
+        });
+
+        System.out.printf("[benchmark] %s: %,d managed entities, per-entity flush cost %,d ns (no changes) / %,d ns (1%% changed)%n",
+                mode, entities, nothingChanged / entities, onePercentChanged / entities);
+    }
+}
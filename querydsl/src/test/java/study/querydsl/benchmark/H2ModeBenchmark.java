@@ -0,0 +1,129 @@
+package study.querydsl.benchmark;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * H2 접속 모드별(내장 메모리 / 내장 파일 / 튜닝된 내장 파일 / TCP 서버) JDBC 성능 비교
+ * TCP 서버(localhost:9092)는 떠 있을 때만 측정한다.
+ * ./gradlew benchmark -Dbenchmark.h2Rows=100000 -Dbenchmark.h2Lookups=20000
+ */
+@Tag("benchmark")
+class H2ModeBenchmark {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("H2 mem vs file vs tcp : batch insert / pk 조회 / 범위 조회")
+    public void compareModes() throws Exception {
+        int rows = BenchmarkSupport.intProperty("h2Rows", 50_000);
+        int lookups = BenchmarkSupport.intProperty("h2Lookups", 10_000);
+
+        Map<String, String> urls = new LinkedHashMap<>();
+        urls.put("mem", "jdbc:h2:mem:h2mode;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        urls.put("file", "jdbc:h2:file:" + tempDir.resolve("default").toAbsolutePath());
+        urls.put("file-tuned", "jdbc:h2:file:" + tempDir.resolve("tuned").toAbsolutePath()
+                + ";CACHE_SIZE=262144;LOCK_TIMEOUT=10000;DB_CLOSE_ON_EXIT=FALSE");
+        if (tcpServerAvailable()) {
+            urls.put("tcp", "jdbc:h2:tcp://localhost/~/querydsl");
+        } else {
+            System.out.println("[benchmark] H2 TCP server (localhost:9092) not running, skipping tcp mode");
+        }
+
+        for (Map.Entry<String, String> entry : urls.entrySet()) {
+            try (Connection connection = DriverManager.getConnection(entry.getValue(), "sa", "")) {
+                run(entry.getKey(), connection, rows, lookups);
+            }
+        }
+    }
+
+    private void run(String mode, Connection connection, int rows, int lookups) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists bench_member");
+            statement.execute("create table bench_member (id bigint primary key, username varchar(255), age int)");
+            statement.execute("create index idx_bench_member_age on bench_member (age)");
+        }
+
+        connection.setAutoCommit(false);
+        long start = System.nanoTime();
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into bench_member (id, username, age) values (?, ?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                insert.setLong(1, i);
+                insert.setString(2, "member" + i);
+                insert.setInt(3, i % 100);
+                insert.addBatch();
+                if (i % 100 == 99) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        BenchmarkSupport.report(mode + " batch insert", rows, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        long found = 0;
+        try (PreparedStatement select = connection.prepareStatement("select username from bench_member where id = ?")) {
+            for (int i = 0; i < lookups; i++) {
+                select.setLong(1, ThreadLocalRandom.current().nextInt(rows));
+                try (ResultSet rs = select.executeQuery()) {
+                    found += rs.next() ? 1 : 0;
+                }
+            }
+        }
+        BenchmarkSupport.report(mode + " pk lookup", lookups, System.nanoTime() - start);
+        assertThat(found).isEqualTo(lookups);
+
+        int ranges = Math.max(1, lookups / 10);
+        start = System.nanoTime();
+        try (PreparedStatement select = connection.prepareStatement(
+                "select id, username from bench_member where age between ? and ? limit 20")) {
+            for (int i = 0; i < ranges; i++) {
+                int age = ThreadLocalRandom.current().nextInt(90);
+                select.setInt(1, age);
+                select.setInt(2, age + 10);
+                try (ResultSet rs = select.executeQuery()) {
+                    while (rs.next()) {
+                        found++;
+                    }
+                }
+            }
+        }
+        BenchmarkSupport.report(mode + " age range (limit 20)", ranges, System.nanoTime() - start);
+        connection.commit();
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table bench_member");
+        }
+        connection.commit();
+    }
+
+    private boolean tcpServerAvailable() {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress("localhost", 9092), 200);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+package study.querydsl.benchmark;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberCreateRequest;
+import study.querydsl.entity.Member;
+import study.querydsl.ingest.IngestionRejectedException;
+import study.querydsl.ingest.MemberIngestionQueue;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 요청마다 트랜잭션 하나로 persist 하는 경우와 write-behind 큐를 통해 일괄 저장하는 경우의 처리량 비교
+ * ./gradlew benchmark -Dbenchmark.ingest=50000
+ */
+@Tag("benchmark")
+@SpringBootTest
+class MemberIngestionBenchmark {
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    MemberIngestionQueue memberIngestionQueue;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("단건 persist 트랜잭션 vs write-behind 일괄 저장")
+    public void ingestionThroughput() throws Exception {
+        int count = BenchmarkSupport.intProperty("ingest", 20_000);
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            Member member = new Member("single" + i, i % 100);
+            tx.executeWithoutResult(status -> memberJpaRepository.save(member));
+        }
+        BenchmarkSupport.report("one transaction per persist", count, System.nanoTime() - start);
+
+        /* HTTP 요청 하나에 100명씩 들어오는 상황을 가정 */
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        start = System.nanoTime();
+        for (int i = 0; i < count; i += 100) {
+            List<MemberCreateRequest> requests = new ArrayList<>();
+            for (int j = i; j < Math.min(i + 100, count); j++) {
+                requests.add(new MemberCreateRequest("queued" + j, j % 100, null));
+            }
+            futures.add(submitWithRetry(requests));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get();
+        BenchmarkSupport.report("write-behind ingestion queue", count, System.nanoTime() - start);
+
+        System.out.println("[benchmark] " + memberIngestionQueue.stats());
+        assertThat(memberIngestionQueue.stats().failed()).isZero();
+    }
+
+    private CompletableFuture<Void> submitWithRetry(List<MemberCreateRequest> requests) throws InterruptedException {
+        while (true) {
+            try {
+                return memberIngestionQueue.submit(requests);
+            } catch (IngestionRejectedException e) {
+                Thread.sleep(1);
+            }
+        }
+    }
+
+}
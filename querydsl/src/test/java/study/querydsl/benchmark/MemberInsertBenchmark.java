@@ -0,0 +1,97 @@
+package study.querydsl.benchmark;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Member 저장 처리량 측정
+ * 같은 JVM 에서 id 생성 설정을 바꿀 수 없으므로 설정별로 따로 실행해서 비교한다.
+ * - previous: 이전 매핑(@GeneratedValue 기본값)의 실제 설정 - SequenceStyleGenerator, increment 50, pooled, JDBC batch 없음
+ * - current : application.yml 의 설정 - hibernate.id.allocation_size.*, pooled-lo, jdbc.batch_size
+ * 블록 크기 / optimizer 는 하드코딩하지 않고 SessionFactory 에 실제로 구성된 generator 에서 읽어서 출력한다.
+ * before: ./gradlew benchmark --tests '*MemberInsertBenchmark' -Dbenchmark.idGenerator=previous -Dbenchmark.inserts=100000
+ * after : ./gradlew benchmark --tests '*MemberInsertBenchmark' -Dbenchmark.inserts=100000
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Transactional
+class MemberInsertBenchmark {
+
+    private static final String ID_GENERATOR = BenchmarkSupport.property("idGenerator", "current");
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @DynamicPropertySource
+    static void idGeneratorProperties(DynamicPropertyRegistry registry) {
+        if (!"previous".equals(ID_GENERATOR)) {
+            return;
+        }
+        registry.add("spring.jpa.properties.hibernate.id.allocation_size.member_seq", () -> "50");
+        registry.add("spring.jpa.properties.hibernate.id.allocation_size.team_seq", () -> "50");
+        registry.add("spring.jpa.properties.hibernate.id.optimizer.pooled.preferred", () -> "pooled");
+        registry.add("spring.jpa.properties.hibernate.jdbc.batch_size", () -> "0");
+        registry.add("spring.jpa.properties.hibernate.order_inserts", () -> "false");
+        registry.add("spring.jpa.properties.hibernate.order_updates", () -> "false");
+    }
+
+    @Test
+    @DisplayName("설정된 id 생성기(시퀀스 블록 크기 / optimizer)로 저장 처리량 측정")
+    public void insertThroughput() {
+        int inserts = BenchmarkSupport.intProperty("inserts", 50_000);
+        String generator = describe(Member.class) + ", team " + describe(Team.class);
+
+        Team team = new Team("teamA");
+        em.persist(team);
+        /* warmup */
+        persistMembers("warmup", Math.min(inserts, 5_000), team);
+
+        long start = System.nanoTime();
+        persistMembers("member", inserts, team);
+        BenchmarkSupport.report("persist (" + ID_GENERATOR + ": " + generator + ")", inserts, System.nanoTime() - start);
+
+        Long count = em.createQuery("select count(m) from Member m where m.username like 'member%'", Long.class)
+                .getSingleResult();
+        assertThat(count).isEqualTo(inserts);
+    }
+
+    private void persistMembers(String prefix, int count, Team team) {
+        for (int i = 0; i < count; i++) {
+            em.persist(new Member(prefix + i, i % 100, team));
+            if (i % 1_000 == 999) {
+                em.flush();
+                em.clear();
+                team = em.getReference(Team.class, team.getId());
+            }
+        }
+        em.flush();
+        em.clear();
+    }
+
+    private String describe(Class<?> entity) {
+        SequenceStyleGenerator generator = (SequenceStyleGenerator) emf.unwrap(SessionFactoryImplementor.class)
+                .getMappingMetamodel()
+                .getEntityDescriptor(entity)
+                .getIdentifierGenerator();
+        return generator.getDatabaseStructure().getPhysicalName().render()
+                + " allocationSize=" + generator.getOptimizer().getIncrementSize()
+                + " " + generator.getOptimizer().getClass().getSimpleName();
+    }
+}
@@ -0,0 +1,102 @@
+package study.querydsl.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.service.MemberSearchService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 같은 조건의 검색이 동시에 몰리는 상황에서 single-flight 적용 전후의 DB 조회 횟수와 처리 시간 비교
+ * ./gradlew benchmark -Dbenchmark.clients=64 -Dbenchmark.rounds=50
+ */
+@Tag("benchmark")
+@SpringBootTest
+class MemberSearchCoalescingBenchmark {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @Autowired
+    MemberSearchService memberSearchService;
+
+    @Test
+    @DisplayName("동시에 들어온 '/v1/members?teamName=teamA' 요청의 DB 부하 비교")
+    public void coalescingReducesDatabaseLoad() throws Exception {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            for (int i = 0; i < 10_000; i++) {
+                em.persist(new Member("member" + i, i % 100, teamA));
+            }
+        });
+
+        int clients = BenchmarkSupport.intProperty("clients", 32);
+        int rounds = BenchmarkSupport.intProperty("rounds", 20);
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        AtomicLong direct = new AtomicLong();
+        long start = System.nanoTime();
+        run(clients, rounds, () -> {
+            direct.incrementAndGet();
+            memberJpaRepository.searchByWhereParameter(condition);
+        });
+        BenchmarkSupport.report("direct (db executions = " + direct.get() + ")",
+                (long) clients * rounds, System.nanoTime() - start);
+
+        long before = memberSearchService.executions();
+        start = System.nanoTime();
+        run(clients, rounds, () -> memberSearchService.searchByWhereParameter(condition));
+        long executions = memberSearchService.executions() - before;
+        BenchmarkSupport.report("single-flight (db executions = " + executions + ")",
+                (long) clients * rounds, System.nanoTime() - start);
+
+        assertThat(executions).isLessThan(direct.get());
+    }
+
+    /* 매 라운드마다 모든 클라이언트가 barrier 에서 만나 동시에 요청을 보낸다 */
+    private void run(int clients, int rounds, Runnable request) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(clients);
+        CyclicBarrier barrier = new CyclicBarrier(clients);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            futures.add(executor.submit(() -> {
+                for (int r = 0; r < rounds; r++) {
+                    barrier.await();
+                    request.run();
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+    }
+
+}
@@ -0,0 +1,108 @@
+package study.querydsl.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.partition.PartitionedMemberSearch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 팀 조건이 없는 검색 - 인덱스를 사용하는 단일 쿼리 vs 논리 파티션(팀)별 scatter-gather
+ * 같은 테이블을 팀 수 + 1 번 나누어 읽는 scatter-gather 가 단일 쿼리보다 빠르지 않은지 확인한다.
+ * ./gradlew benchmark --tests '*PartitionedSearchBenchmark' -Dbenchmark.members=100000 -Dbenchmark.teams=50
+ */
+@Tag("benchmark")
+@SpringBootTest
+class PartitionedSearchBenchmark {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    /* scatter-gather 는 파티션별 트랜잭션에서 조회하므로 데이터를 커밋하고, 측정 후 직접 정리한다 */
+    @AfterEach
+    public void cleanUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.createNativeQuery("delete from member_team_view").executeUpdate();
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    @DisplayName("팀 조건 없는 페이지 검색 - single query vs scatter-gather")
+    public void singleQueryVsScatterGather() {
+        int members = BenchmarkSupport.intProperty("members", 50_000);
+        int teams = BenchmarkSupport.intProperty("teams", 20);
+        seed(members, teams);
+
+        PartitionedMemberSearch single = new PartitionedMemberSearch(em, transactionManager,
+                new SimpleMeterRegistry(), 4, false);
+        PartitionedMemberSearch scatterGather = new PartitionedMemberSearch(em, transactionManager,
+                new SimpleMeterRegistry(), 4, true);
+        try {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setAgeGoe(20);
+            condition.setAgeLoe(40);
+            PageRequest pageable = PageRequest.of(3, 20);
+
+            long singleAvg = BenchmarkSupport.measure("single query (" + teams + " teams)", 20, 200,
+                    () -> single.search(condition, pageable).getContent());
+            long scatterAvg = BenchmarkSupport.measure("scatter-gather (" + teams + " teams)", 20, 200,
+                    () -> scatterGather.search(condition, pageable).getContent());
+            System.out.printf("[benchmark] scatter-gather / single = %.1fx%n", (double) scatterAvg / singleAvg);
+
+            Page<MemberTeamDTO> expected = scatterGather.search(condition, pageable);
+            Page<MemberTeamDTO> actual = single.search(condition, pageable);
+            assertThat(actual.getContent()).isEqualTo(expected.getContent());
+            assertThat(actual.getTotalElements()).isEqualTo(expected.getTotalElements());
+        } finally {
+            single.shutdown();
+            scatterGather.shutdown();
+        }
+    }
+
+    private void seed(int members, int teams) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            List<Long> teamIds = new ArrayList<>();
+            for (int i = 0; i < teams; i++) {
+                Team team = new Team("team" + i);
+                em.persist(team);
+                teamIds.add(team.getId());
+            }
+            em.flush();
+            em.clear();
+            for (int i = 0; i < members; i++) {
+                Member member = new Member("member" + i, i % 100);
+                /* 일부 회원은 팀이 없다 (teamId = null 파티션) */
+                if (i % (teams + 1) < teams) {
+                    member.setTeam(em.getReference(Team.class, teamIds.get(i % (teams + 1))));
+                }
+                em.persist(member);
+                if (i % 1_000 == 999) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,79 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberDTO;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 같은 쿼리를 Projections.bean / fields / constructor 와 MethodHandle 기반 projection 으로 조회했을 때의 비교
+ * ./gradlew benchmark -Dbenchmark.projectionRows=100000
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Transactional
+class ProjectionBenchmark {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    JPAQueryFactory queryFactory;
+
+    int rows;
+
+    @BeforeEach
+    public void before() {
+        queryFactory = new JPAQueryFactory(em);
+        rows = BenchmarkSupport.intProperty("projectionRows", 50_000);
+        for (int i = 0; i < rows; i++) {
+            em.persist(new Member("member" + i, i % 100));
+            if (i % 1_000 == 999) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    @DisplayName("MemberDTO(username, age) 조회 - bean vs fields vs constructor vs MethodHandle")
+    public void projectionStrategies() {
+        BenchmarkSupport.measure("Projections.bean", 3, 10, () -> queryFactory
+                .select(Projections.bean(MemberDTO.class, member.username, member.age))
+                .from(member)
+                .fetch());
+
+        BenchmarkSupport.measure("Projections.fields", 3, 10, () -> queryFactory
+                .select(Projections.fields(MemberDTO.class, member.username, member.age))
+                .from(member)
+                .fetch());
+
+        BenchmarkSupport.measure("Projections.constructor", 3, 10, () -> queryFactory
+                .select(Projections.constructor(MemberDTO.class, member.username, member.age))
+                .from(member)
+                .fetch());
+
+        BenchmarkSupport.measure("MethodHandleProjection (findProjected)", 3, 10, () ->
+                memberRepository.findProjected(new MemberSearchCondition(), MemberDTO.class));
+
+        assertThat(memberRepository.findProjected(new MemberSearchCondition(), MemberDTO.class)).hasSize(rows);
+    }
+
+}
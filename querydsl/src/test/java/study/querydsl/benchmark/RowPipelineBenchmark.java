@@ -0,0 +1,93 @@
+package study.querydsl.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 팀별 평균 나이 집계 - DTO 리스트(search) vs 행 콜백(forEachRow)
+ * ./gradlew benchmark -Dbenchmark.rowPipelineRows=1000000
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Transactional
+class RowPipelineBenchmark {
+
+    private static final int TEAMS = 10;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    int rows;
+
+    @BeforeEach
+    public void before() {
+        rows = BenchmarkSupport.intProperty("rowPipelineRows", 200_000);
+        List<Team> teams = new ArrayList<>();
+        for (int t = 0; t < TEAMS; t++) {
+            Team team = new Team("team" + t);
+            em.persist(team);
+            teams.add(team);
+        }
+        em.flush();
+        for (int i = 0; i < rows; i++) {
+            em.persist(new Member("member" + i, i % 100, em.getReference(Team.class, teams.get(i % TEAMS).getId())));
+            if (i % 1_000 == 999) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    @DisplayName("팀별 평균 나이 - List<MemberTeamDTO> vs forEachRow")
+    public void aggregateAgeByTeam() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        BenchmarkSupport.measure("search -> List<MemberTeamDTO>", 2, 5, () -> {
+            long[] sum = new long[TEAMS];
+            long[] count = new long[TEAMS];
+            for (MemberTeamDTO dto : memberRepository.search(condition)) {
+                int slot = (int) Math.floorMod(dto.getTeamId(), TEAMS);
+                sum[slot] += dto.getAge();
+                count[slot]++;
+            }
+            em.clear();
+            return count[0];
+        });
+
+        BenchmarkSupport.measure("forEachRow (reused row view)", 2, 5, () -> {
+            long[] sum = new long[TEAMS];
+            long[] count = new long[TEAMS];
+            memberRepository.forEachRow(condition, row -> {
+                int slot = (int) Math.floorMod(row.teamId(), TEAMS);
+                sum[slot] += row.age();
+                count[slot]++;
+            });
+            return count[0];
+        });
+
+        long[] total = new long[1];
+        assertThat(memberRepository.forEachRow(condition, row -> total[0] += row.age())).isEqualTo(rows);
+    }
+}
@@ -0,0 +1,105 @@
+package study.querydsl.benchmark;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import study.querydsl.QuerydslApplication;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 기본 설정과 fast profile 의 기동 시간(컨텍스트 refresh 완료까지)을 별도 JVM 을 띄워서 측정한다.
+ * (-Dspring.context.exit=onRefresh 로 refresh 가 끝나면 바로 종료)
+ * ./gradlew benchmark --tests '*StartupTimeBenchmark' -Dbenchmark.startupRuns=5
+ *
+ * -PstartupVariants 로 실행하면 bootRunFast 와 같은 jar 클래스패스(benchmark.fastClasspath)에서
+ * fast / fast + AOT / fast + AOT + CDS(benchmark.cdsArchive) 도 측정한다.
+ * CDS 아카이브는 jar 에 들어있는 클래스만 공유하고 클래스패스가 같아야 사용되므로, 테스트 클래스패스(디렉토리)와는 비교하지 않는다.
+ */
+@Tag("benchmark")
+class StartupTimeBenchmark {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("기본 설정 vs fast profile (lazy init + ddl validate) vs AOT / CDS 기동 시간")
+    public void startupTime() throws Exception {
+        int runs = BenchmarkSupport.intProperty("startupRuns", 3);
+        /* 스키마가 남아 있어야 validate 가 성공하므로 파일 기반 DB 를 사용한다 */
+        String url = "jdbc:h2:file:" + tempDir.resolve("startup").toAbsolutePath();
+        String testClasspath = System.getProperty("java.class.path");
+
+        long defaultMedian = median("default", runs, testClasspath, List.of(), url, "test");
+        long fastMedian = median("fast", runs, testClasspath, List.of(), url, "test,fast");
+        System.out.printf("[benchmark] startup default = %,d ms, fast = %,d ms%n", defaultMedian, fastMedian);
+        assertThat(fastMedian).isPositive();
+
+        String fastClasspath = BenchmarkSupport.property("fastClasspath", null);
+        if (fastClasspath == null) {
+            System.out.println("[benchmark] AOT / CDS variants skipped, run with -PstartupVariants");
+            return;
+        }
+        long jarMedian = median("fast (jar)", runs, fastClasspath, List.of(), url, "fast");
+        long aotMedian = median("fast + AOT", runs, fastClasspath, List.of("-Dspring.aot.enabled=true"), url, "fast");
+        System.out.printf("[benchmark] startup fast (jar) = %,d ms, fast + AOT = %,d ms%n", jarMedian, aotMedian);
+
+        Path cdsArchive = Path.of(BenchmarkSupport.property("cdsArchive", ""));
+        if (!Files.isRegularFile(cdsArchive)) {
+            System.out.println("[benchmark] CDS variant skipped, archive not found: " + cdsArchive);
+            return;
+        }
+        long cdsMedian = median("fast + AOT + CDS", runs, fastClasspath,
+                List.of("-Dspring.aot.enabled=true", "-XX:SharedArchiveFile=" + cdsArchive, "-Xshare:on"), url, "fast");
+        System.out.printf("[benchmark] startup fast + AOT + CDS = %,d ms%n", cdsMedian);
+    }
+
+    private long median(String name, int runs, String classpath, List<String> jvmArgs,
+                        String url, String profiles) throws Exception {
+        long[] elapsed = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            elapsed[i] = launch(name, classpath, jvmArgs, url, profiles);
+            System.out.printf("[benchmark] %-18s run %d: %,d ms%n", name, i + 1, elapsed[i]);
+        }
+        Arrays.sort(elapsed);
+        return elapsed[runs / 2];
+    }
+
+    private long launch(String name, String classpath, List<String> jvmArgs,
+                        String url, String profiles) throws Exception {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(List.of("-cp", classpath, "-Dspring.context.exit=onRefresh"));
+        /* -Xshare:on 이면 아카이브를 사용할 수 없을 때 기동에 실패하므로, 조용히 CDS 없이 측정되는 일이 없다 */
+        command.addAll(jvmArgs);
+        command.addAll(List.of(
+                QuerydslApplication.class.getName(),
+                "--spring.profiles.active=" + profiles,
+                "--spring.datasource.url=" + url,
+                "--server.port=0"));
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        if (!process.waitFor(2, TimeUnit.MINUTES)) {
+            process.destroyForcibly();
+            throw new IllegalStateException(name + " did not start within 2 minutes");
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertThat(process.exitValue()).as("exit code of %s", name).isZero();
+        return elapsedMillis;
+    }
+
+}
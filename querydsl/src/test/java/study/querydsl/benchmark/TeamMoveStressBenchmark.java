@@ -0,0 +1,130 @@
+package study.querydsl.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.service.TeamMembershipService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 적은 수의 회원을 여러 스레드가 동시에 다른 팀으로 옮기는 부하 테스트
+ * - without retry: 충돌하면 그대로 실패
+ * - with retry   : TeamMembershipService 가 backoff 후 재시도
+ * ./gradlew benchmark -Dbenchmark.moveThreads=16 -Dbenchmark.movesPerThread=200 -Dbenchmark.hotMembers=10
+ */
+@Tag("benchmark")
+@SpringBootTest
+class TeamMoveStressBenchmark {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    TeamMembershipService teamMembershipService;
+
+    @Test
+    @DisplayName("동시 changeTeam 처리량과 충돌 - 재시도 없음 vs 재시도")
+    public void concurrentTeamMoves() throws Exception {
+        int threads = BenchmarkSupport.intProperty("moveThreads", 16);
+        int movesPerThread = BenchmarkSupport.intProperty("movesPerThread", 100);
+        int hotMembers = BenchmarkSupport.intProperty("hotMembers", 10);
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        List<Long> teamIds = new ArrayList<>();
+        List<Long> memberIds = new ArrayList<>();
+        tx.executeWithoutResult(status -> {
+            for (int i = 0; i < 4; i++) {
+                Team team = new Team("team" + i);
+                em.persist(team);
+                teamIds.add(team.getId());
+            }
+            for (int i = 0; i < hotMembers; i++) {
+                Member member = new Member("hot" + i, i);
+                em.persist(member);
+                memberIds.add(member.getId());
+            }
+        });
+
+        AtomicLong naiveFailures = new AtomicLong();
+        long start = System.nanoTime();
+        long naiveSuccess = run(threads, movesPerThread, () -> {
+            Long memberId = pick(memberIds);
+            Long teamId = pick(teamIds);
+            try {
+                tx.executeWithoutResult(status -> em.find(Member.class, memberId)
+                        .changeTeam(em.getReference(Team.class, teamId)));
+                return true;
+            } catch (OptimisticLockingFailureException e) {
+                naiveFailures.incrementAndGet();
+                return false;
+            }
+        });
+        BenchmarkSupport.report("without retry (failed = " + naiveFailures.get() + ")",
+                naiveSuccess, System.nanoTime() - start);
+
+        AtomicLong retries = new AtomicLong();
+        AtomicLong retryFailures = new AtomicLong();
+        start = System.nanoTime();
+        long retrySuccess = run(threads, movesPerThread, () -> {
+            try {
+                retries.addAndGet(teamMembershipService.moveMember(pick(memberIds), pick(teamIds)) - 1);
+                return true;
+            } catch (OptimisticLockingFailureException e) {
+                retryFailures.incrementAndGet();
+                return false;
+            }
+        });
+        BenchmarkSupport.report("with retry (retries = " + retries.get() + ", failed = " + retryFailures.get() + ")",
+                retrySuccess, System.nanoTime() - start);
+
+        assertThat(retrySuccess).isGreaterThanOrEqualTo(naiveSuccess);
+    }
+
+    private long run(int threads, int movesPerThread, BooleanSupplier move) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                long success = 0;
+                for (int i = 0; i < movesPerThread; i++) {
+                    if (move.getAsBoolean()) {
+                        success++;
+                    }
+                }
+                return success;
+            }));
+        }
+        long success = 0;
+        for (Future<Long> future : futures) {
+            success += future.get();
+        }
+        executor.shutdown();
+        return success;
+    }
+
+    private static Long pick(List<Long> ids) {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+}
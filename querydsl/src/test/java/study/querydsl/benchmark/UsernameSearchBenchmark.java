@@ -0,0 +1,72 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * lower(username) = ? 조건과, 인덱스가 걸린 username_lower 컬럼 비교의 조회 성능 차이를 측정한다.
+ * ./gradlew benchmark -Dbenchmark.members=1000000
+ */
+@Tag("benchmark")
+@SpringBootTest
+@Transactional
+class UsernameSearchBenchmark {
+
+    @Autowired
+    EntityManager em;
+
+    JPAQueryFactory queryFactory;
+
+    int members;
+
+    @BeforeEach
+    public void before() {
+        queryFactory = new JPAQueryFactory(em);
+        members = BenchmarkSupport.intProperty("members", 100_000);
+        for (int i = 0; i < members; i++) {
+            em.persist(new Member("Member" + i, i % 100));
+            if (i % 1_000 == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    @DisplayName("lower(username) = ? vs username_lower = ? (IGNORE_CASE) vs username_lower like ? (PREFIX)")
+    public void lowerFunctionVsNormalizedColumn() {
+        String target = "member" + (members / 2);
+
+        long functionAvg = BenchmarkSupport.measure("lower(username) = ?", 20, 200, () -> queryFactory
+                .selectFrom(member)
+                .where(member.username.lower().eq(target))
+                .fetch());
+
+        long columnAvg = BenchmarkSupport.measure("username_lower = ?", 20, 200, () -> queryFactory
+                .selectFrom(member)
+                .where(member.usernameLower.eq(target))
+                .fetch());
+
+        BenchmarkSupport.measure("username_lower like 'member1234%'", 20, 200, () -> queryFactory
+                .selectFrom(member)
+                .where(member.usernameLower.startsWith("member1234"))
+                .fetch());
+
+        System.out.printf("[benchmark] speedup = %.1fx%n", (double) functionAvg / columnAvg);
+        assertThat(queryFactory.selectFrom(member).where(member.usernameLower.eq(target)).fetch()).hasSize(1);
+    }
+
+}
@@ -0,0 +1,79 @@
+package study.querydsl.cdc;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+class ChangeCaptureListenerTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    ChangeLogs changeLogs;
+
+    @Autowired
+    BulkChangeCapture bulkChangeCapture;
+
+    /* 커밋된 변경만 기록되므로 데이터를 커밋하고, 테스트 후 직접 정리한다 */
+    @AfterEach
+    public void cleanUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    @DisplayName("커밋된 insert / update / delete 와 벌크 연산만 변경 로그에 남는다.")
+    public void captureCommittedChanges() {
+        ChangeLog changeLog = changeLogs.current();
+        long from = changeLog.nextOffset();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        Long memberId = tx.execute(status -> {
+            Team team = new Team("teamA");
+            em.persist(team);
+            Member member = new Member("member1", 10, team);
+            em.persist(member);
+            return member.getId();
+        });
+        tx.executeWithoutResult(status -> em.find(Member.class, memberId).setAge(20));
+        tx.executeWithoutResult(status -> {
+            em.persist(new Member("rolledBack", 30));
+            status.setRollbackOnly();
+        });
+        tx.executeWithoutResult(status -> bulkChangeCapture.execute(
+                new JPAQueryFactory(em).update(member).set(member.age, member.age.add(1)), member));
+        tx.executeWithoutResult(status -> em.remove(em.find(Member.class, memberId)));
+
+        List<ChangeRecord> changes = changeLog.read(from, 100).changes();
+        assertThat(changes)
+                .extracting(ChangeRecord::type, ChangeRecord::entity, ChangeRecord::entityId)
+                .containsExactly(
+                        tuple(ChangeType.INSERT, "Team", changes.get(0).entityId()),
+                        tuple(ChangeType.INSERT, "Member", memberId),
+                        tuple(ChangeType.UPDATE, "Member", memberId),
+                        tuple(ChangeType.BULK_UPDATE, "Member", null),
+                        tuple(ChangeType.DELETE, "Member", memberId));
+        assertThat(changes.get(2).detail()).isEqualTo("age");
+    }
+}
@@ -0,0 +1,60 @@
+package study.querydsl.cdc;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ChangeLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("ring buffer 에 남아 있는 offset 과 밀려난 offset 을 모두 순서대로 읽을 수 있다.")
+    public void readFromRingAndFile() throws IOException {
+        ChangeLog changeLog = new ChangeLog(dir.toString(), 8, 4, false);
+        for (long id = 0; id < 30; id++) {
+            changeLog.append(ChangeType.INSERT, "Member", id, null);
+        }
+
+        ChangeBatch recent = changeLog.read(25, 10);
+        assertThat(recent.changes()).extracting(ChangeRecord::entityId).containsExactly(25L, 26L, 27L, 28L, 29L);
+        assertThat(recent.nextOffset()).isEqualTo(30);
+
+        ChangeBatch old = changeLog.read(5, 3);
+        assertThat(old.changes()).extracting(ChangeRecord::offset).containsExactly(5L, 6L, 7L);
+        assertThat(old.nextOffset()).isEqualTo(8);
+
+        assertThat(changeLog.read(30, 10).changes()).isEmpty();
+        changeLog.close();
+    }
+
+    @Test
+    @DisplayName("다시 열면 offset 을 이어서 부여하고, 중간에 잘린 마지막 줄은 버린다.")
+    public void recoverAfterRestart() throws IOException {
+        ChangeLog changeLog = new ChangeLog(dir.toString(), 8, 4, true);
+        changeLog.append(ChangeType.INSERT, "Team", 1L, null);
+        changeLog.append(ChangeType.UPDATE, "Team", 1L, "name");
+        changeLog.close();
+        Files.writeString(dir.resolve(ChangeLog.FILE_NAME), "2\t0\tDEL", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        ChangeLog reopened = new ChangeLog(dir.toString(), 8, 4, false);
+        assertThat(reopened.nextOffset()).isEqualTo(2);
+        reopened.append(ChangeType.BULK_UPDATE, "Member", null, "update Member\nset age = 1");
+
+        ChangeBatch all = reopened.read(0, 10);
+        assertThat(all.changes()).extracting(ChangeRecord::type)
+                .containsExactly(ChangeType.INSERT, ChangeType.UPDATE, ChangeType.BULK_UPDATE);
+        assertThat(all.changes().get(1).detail()).isEqualTo("name");
+        assertThat(all.changes().get(2).detail()).isEqualTo("update Member set age = 1");
+        reopened.close();
+    }
+}
@@ -0,0 +1,135 @@
+package study.querydsl.export;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class MemberExportJobTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path exportDir;
+
+    /* export 는 커밋된 데이터만 읽으므로, 다른 테스트에 영향을 주지 않도록 직접 정리한다 */
+    @AfterEach
+    public void cleanUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    @DisplayName("member left join team 결과를 청크 단위로 내보내고, 다시 읽으면 같은 결과가 나온다.")
+    public void exportAndReadBack() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            for (int i = 0; i < 25; i++) {
+                em.persist(new Member("member" + i, i, i % 2 == 0 ? teamA : null));
+            }
+        });
+
+        /* 청크 5개, 2개의 row group 마다 체크포인트 */
+        MemberExportJob job = new MemberExportJob(em, exportDir.toString(), 5, 2);
+        ExportProgress progress = job.runNow("snapshot");
+
+        assertThat(progress.getState()).isEqualTo(ExportProgress.State.COMPLETED);
+        ExportCheckpoint checkpoint = ExportCheckpoint.load(exportDir.resolve("snapshot.checkpoint"));
+        assertThat(checkpoint.completed()).isTrue();
+        assertThat(checkpoint.rows()).isEqualTo(progress.getRows());
+
+        List<MemberTeamDTO> rows = new ArrayList<>();
+        long count = MemberExportFormat.read(job.dataFile("snapshot"), rows::add);
+        assertThat(count).isEqualTo(progress.getRows());
+        assertThat(rows).extracting("memberId").isSorted();
+        assertThat(rows).filteredOn(row -> row.getUsername().equals("member0"))
+                .extracting("teamName").containsExactly("teamA");
+        assertThat(rows).filteredOn(row -> row.getUsername().equals("member1"))
+                .extracting("teamId").containsExactly((Object) null);
+    }
+
+    @Test
+    @DisplayName("중간에 멈춘 export 를 다시 시작하면 마지막 체크포인트부터 이어서, 빠지거나 중복된 행 없이 내보낸다.")
+    public void resumeAfterStop() {
+        List<Long> memberIds = new TransactionTemplate(transactionManager).execute(status -> {
+            List<Member> members = new ArrayList<>();
+            for (int i = 0; i < 25; i++) {
+                Member member = new Member("member" + i, i);
+                em.persist(member);
+                members.add(member);
+            }
+            return members.stream().map(Member::getId).toList();
+        });
+
+        /* 청크 5개, 2개의 row group 마다 체크포인트 - 세 번째 row group 을 기록한 후(체크포인트 전) 네 번째 청크 조회가 실패한다 */
+        MemberExportJob stopping = new MemberExportJob(failingAfter(3), exportDir.toString(), 5, 2);
+        ExportProgress stopped = stopping.runNow("resume");
+        assertThat(stopped.getState()).isEqualTo(ExportProgress.State.FAILED);
+        assertThat(ExportCheckpoint.load(exportDir.resolve("resume.checkpoint")).lastMemberId())
+                .isEqualTo(memberIds.get(9));
+
+        MemberExportJob job = new MemberExportJob(em, exportDir.toString(), 5, 2);
+        ExportProgress resumed = job.runNow("resume");
+        assertThat(resumed.getState()).isEqualTo(ExportProgress.State.COMPLETED);
+        assertThat(resumed.getResumedFromMemberId()).isEqualTo(memberIds.get(9));
+        assertThat(resumed.getResumedRows()).isEqualTo(10);
+
+        List<MemberTeamDTO> rows = new ArrayList<>();
+        MemberExportFormat.read(job.dataFile("resume"), rows::add);
+        assertThat(rows).extracting(MemberTeamDTO::getMemberId).containsExactlyElementsOf(memberIds);
+        assertThat(resumed.getRows()).isEqualTo(25);
+    }
+
+    @Test
+    @DisplayName("파일 이름으로 사용할 수 없는 export 이름은 거절한다. (400)")
+    public void invalidName() {
+        MemberExportJob job = new MemberExportJob(em, exportDir.toString(), 5, 2);
+        assertThatThrownBy(() -> job.start("../snapshot")).isInstanceOf(InvalidExportNameException.class);
+        assertThatThrownBy(() -> job.runNow("")).isInstanceOf(InvalidExportNameException.class);
+    }
+
+    /**
+     * 쿼리를 queries 번 만든 후부터는 DB 연결이 끊긴 것처럼 실패하는 EntityManager
+     */
+    private EntityManager failingAfter(int queries) {
+        AtomicInteger created = new AtomicInteger();
+        return (EntityManager) Proxy.newProxyInstance(EntityManager.class.getClassLoader(),
+                new Class<?>[]{EntityManager.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("createQuery") && created.incrementAndGet() > queries) {
+                        throw new PersistenceException("connection lost");
+                    }
+                    try {
+                        return method.invoke(em, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+}
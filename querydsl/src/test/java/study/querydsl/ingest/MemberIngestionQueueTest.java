@@ -0,0 +1,147 @@
+package study.querydsl.ingest;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberCreateRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class MemberIngestionQueueTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    private MemberIngestionQueue queue;
+
+    @AfterEach
+    public void cleanUp() throws InterruptedException {
+        if (queue != null) {
+            queue.stop();
+        }
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.createNativeQuery("delete from member_team_view").executeUpdate();
+            em.createQuery("delete from Member").executeUpdate();
+        });
+    }
+
+    @Test
+    @DisplayName("버퍼가 가득 차면 거절하고, future 는 커밋된 후에 완료된다.")
+    public void backpressureAndAck() throws Exception {
+        /* 용량 3, 첫 요청 후 1초 동안 모아서 저장 */
+        queue = start(3, 100, 1_000);
+
+        CompletableFuture<Void> committed = queue.submit(List.of(
+                new MemberCreateRequest("ingest1", 10, null),
+                new MemberCreateRequest("ingest2", 20, null),
+                new MemberCreateRequest("ingest3", 30, null)));
+        /* ACCEPTED: 버퍼에 적재되었을 뿐 아직 저장되지 않았다 */
+        assertThat(committed).isNotDone();
+
+        assertThatThrownBy(() -> queue.submit(List.of(new MemberCreateRequest("overflow", 40, null))))
+                .isInstanceOf(IngestionRejectedException.class);
+        assertThatThrownBy(() -> queue.submit(List.of(
+                new MemberCreateRequest("a", 1, null), new MemberCreateRequest("b", 2, null),
+                new MemberCreateRequest("c", 3, null), new MemberCreateRequest("d", 4, null))))
+                .isInstanceOf(InvalidIngestionRequestException.class);
+
+        /* DURABLE: future 가 완료되면 커밋된 회원이 보여야 한다 */
+        committed.get(5, TimeUnit.SECONDS);
+        assertThat(countMembers("ingest%")).isEqualTo(3);
+        assertThat(countMembers("overflow")).isZero();
+
+        /* 저장 후에는 버퍼에 다시 적재할 수 있다 */
+        queue.submit(List.of(new MemberCreateRequest("overflow", 40, null))).get(5, TimeUnit.SECONDS);
+        assertThat(queue.stats().rejected()).isEqualTo(1);
+        assertThat(queue.stats().flushed()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("배치에 잘못된 회원이 있으면 그 회원을 요청한 ticket 만 실패하고 나머지는 저장된다.")
+    public void failOnlyOffendingTicket() throws Exception {
+        queue = start(100, 100, 500);
+
+        CompletableFuture<Void> first = queue.submit(List.of(
+                new MemberCreateRequest("good1", 10, null),
+                new MemberCreateRequest("good2", 20, null)));
+        /* 없는 팀을 참조하므로 FK 제약 조건 위반 */
+        CompletableFuture<Void> bad = queue.submit(List.of(new MemberCreateRequest("bad", 30, -1L)));
+        CompletableFuture<Void> last = queue.submit(List.of(new MemberCreateRequest("good3", 40, null)));
+
+        first.get(5, TimeUnit.SECONDS);
+        last.get(5, TimeUnit.SECONDS);
+        assertThatThrownBy(() -> bad.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+
+        assertThat(countMembers("good%")).isEqualTo(3);
+        assertThat(countMembers("bad")).isZero();
+        assertThat(queue.stats().flushed()).isEqualTo(3);
+        assertThat(queue.stats().failed()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("stop 과 동시에 들어온 요청은 거절되거나, 적재되었으면 stop 이 끝나기 전에 저장된다.")
+    public void submitRacingWithStop() throws Exception {
+        queue = start(10_000, 50, 20);
+        AtomicBoolean stopped = new AtomicBoolean();
+        List<CompletableFuture<Void>> futures = new CopyOnWriteArrayList<>();
+        List<Thread> submitters = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            String prefix = "race" + i + "_";
+            Thread submitter = new Thread(() -> {
+                for (int n = 0; !stopped.get(); n++) {
+                    try {
+                        futures.add(queue.submit(List.of(new MemberCreateRequest(prefix + n, 10, null))));
+                    } catch (IngestionRejectedException e) {
+                        /* 버퍼가 가득 찼거나 종료 중 */
+                    }
+                }
+            });
+            submitter.start();
+            submitters.add(submitter);
+        }
+        Thread.sleep(100);
+
+        queue.stop();
+        stopped.set(true);
+        for (Thread submitter : submitters) {
+            submitter.join();
+        }
+
+        /* stop 이 반환된 시점에 적재된 요청은 모두 저장되어 있어야 한다 (완료되지 않는 future 가 없어야 함) */
+        assertThat(futures).isNotEmpty().allSatisfy(future -> assertThat(future).isCompleted());
+        assertThat(countMembers("race%")).isEqualTo(futures.size());
+        queue = null;
+    }
+
+    private MemberIngestionQueue start(int capacity, int batchSize, long flushIntervalMillis) {
+        MemberIngestionQueue started = new MemberIngestionQueue(em, transactionManager,
+                capacity, batchSize, flushIntervalMillis, 10);
+        started.start();
+        return started;
+    }
+
+    private long countMembers(String usernamePattern) {
+        return new TransactionTemplate(transactionManager).execute(status ->
+                em.createQuery("select count(m) from Member m where m.username like :username", Long.class)
+                        .setParameter("username", usernamePattern)
+                        .getSingleResult());
+    }
+}
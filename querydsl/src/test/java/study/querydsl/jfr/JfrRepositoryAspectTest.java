@@ -0,0 +1,70 @@
+package study.querydsl.jfr;
+
+import jakarta.persistence.EntityManager;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class JfrRepositoryAspectTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("리포지토리 호출이 shape / row 수 / SQL 수와 함께 JFR 이벤트로 기록되고, 분석기로 요약된다.")
+    public void recordRepositoryCall() throws Exception {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        Path file = tempDir.resolve("recording.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(RepositoryCallEvent.NAME).withThreshold(java.time.Duration.ZERO);
+            recording.start();
+            memberJpaRepository.searchByWhereParameter(condition);
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals(RepositoryCallEvent.NAME))
+                .toList();
+        assertThat(events).singleElement().satisfies(event -> {
+            assertThat(event.getString("operation")).isEqualTo("MemberJpaRepository.searchByWhereParameter");
+            assertThat(event.getString("shape")).isEqualTo(condition.shape());
+            assertThat(event.getInt("rowCount")).isEqualTo(2);
+            /* 쿼리 전 자동 flush 의 insert 와 select */
+            assertThat(event.getInt("sqlCount")).isGreaterThanOrEqualTo(1);
+            assertThat(event.getLong("flushTime")).isPositive();
+        });
+
+        assertThat(JfrAnalyzer.analyze(file)).contains("repository MemberJpaRepository.searchByWhereParameter");
+    }
+}
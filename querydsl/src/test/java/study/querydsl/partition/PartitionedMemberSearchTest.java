@@ -0,0 +1,119 @@
+package study.querydsl.partition;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class PartitionedMemberSearchTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    PartitionedMemberSearch partitionedMemberSearch;
+
+    /* scatter-gather 는 파티션별 트랜잭션에서 조회하므로 데이터를 커밋하고, 테스트 후 직접 정리한다 */
+    @BeforeEach
+    public void before() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            for (int i = 0; i < 30; i++) {
+                Team team = i % 3 == 0 ? teamA : i % 3 == 1 ? teamB : null;
+                em.persist(new Member("member" + i, i, team));
+            }
+        });
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    @DisplayName("팀 조건이 있으면 해당 팀 파티션만 조회한다.")
+    public void prunedSearch() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        condition.setAgeGoe(10);
+
+        Page<MemberTeamDTO> result = partitionedMemberSearch.search(condition, PageRequest.of(0, 3));
+
+        assertThat(result.getTotalElements()).isEqualTo(7);
+        assertThat(result.getContent()).extracting("username").containsExactly("member10", "member13", "member16");
+        assertThat(result.getContent()).extracting("teamName").containsOnly("teamB");
+    }
+
+    @Test
+    @DisplayName("팀 조건이 없으면 모든 회원(팀 없는 회원 포함)을 한 번에 id 순으로 조회한다.")
+    public void unpartitionedSearch() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeLoe(19);
+
+        Page<MemberTeamDTO> first = partitionedMemberSearch.search(condition, PageRequest.of(0, 7));
+        Page<MemberTeamDTO> second = partitionedMemberSearch.search(condition, PageRequest.of(1, 7));
+
+        assertThat(first.getTotalElements()).isEqualTo(20);
+        assertThat(first.getContent()).extracting("username")
+                .containsExactly("member0", "member1", "member2", "member3", "member4", "member5", "member6");
+        assertThat(second.getContent()).extracting("username")
+                .containsExactly("member7", "member8", "member9", "member10", "member11", "member12", "member13");
+    }
+
+    @Test
+    @DisplayName("없는 팀 이름이면 빈 페이지를 반환한다.")
+    public void unknownTeam() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamZ");
+
+        Page<MemberTeamDTO> result = partitionedMemberSearch.search(condition, PageRequest.of(0, 10));
+
+        assertThat(result.getTotalElements()).isZero();
+        assertThat(result.getContent()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("scatter-gather 는 파티션별 결과를 같은 정렬(같은 값은 id 순)로 합쳐서 단일 쿼리와 같은 페이지를 만든다.")
+    public void scatterGatherSortedSearch() {
+        PartitionedMemberSearch scatterGather = new PartitionedMemberSearch(em, transactionManager,
+                new SimpleMeterRegistry(), 4, true);
+        try {
+            MemberSearchCondition condition = new MemberSearchCondition();
+            condition.setAgeLoe(9);
+            PageRequest pageable = PageRequest.of(1, 4, Sort.by(Sort.Direction.DESC, "age"));
+
+            Page<MemberTeamDTO> result = scatterGather.search(condition, pageable);
+
+            assertThat(result.getTotalElements()).isEqualTo(10);
+            assertThat(result.getContent()).extracting("age").containsExactly(5, 4, 3, 2);
+            assertThat(result.getContent()).isEqualTo(partitionedMemberSearch.search(condition, pageable).getContent());
+        } finally {
+            scatterGather.shutdown();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package study.querydsl.plan;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.dto.UsernameMatch;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class AdaptiveMemberSearchTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    AdaptiveMemberSearch adaptiveMemberSearch;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("Member_3", 30, teamB));
+        em.persist(new Member("member4", 40));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    @DisplayName("fetch join / DTO projection / native SQL 은 같은 결과를 같은 순서(member.id 순)로 반환한다.")
+    public void plansReturnSameResult() {
+        MemberSearchCondition prefix = new MemberSearchCondition();
+        prefix.setUsername("member_");
+        prefix.setUsernameMatch(UsernameMatch.PREFIX);
+
+        MemberSearchCondition teamAndAge = new MemberSearchCondition();
+        teamAndAge.setTeamName("teamA");
+        teamAndAge.setAgeGoe(15);
+
+        MemberSearchCondition all = new MemberSearchCondition();
+
+        for (MemberSearchCondition condition : List.of(prefix, teamAndAge, all)) {
+            List<MemberTeamDTO> expected = adaptiveMemberSearch.execute(QueryPlan.DTO_PROJECTION, condition);
+            assertThat(expected).extracting(MemberTeamDTO::getMemberId).isSorted();
+            assertThat(adaptiveMemberSearch.execute(QueryPlan.FETCH_JOIN, condition)).isEqualTo(expected);
+            assertThat(adaptiveMemberSearch.execute(QueryPlan.NATIVE_SQL, condition)).isEqualTo(expected);
+        }
+        assertThat(adaptiveMemberSearch.execute(QueryPlan.FETCH_JOIN, all)).extracting("username")
+                .containsExactly("member1", "member2", "Member_3", "member4");
+        /* like 의 '_' 는 와일드카드가 아니라 문자 그대로 비교해야 함 */
+        assertThat(adaptiveMemberSearch.execute(QueryPlan.NATIVE_SQL, prefix)).extracting("username")
+                .containsExactly("Member_3");
+    }
+
+    @Test
+    @DisplayName("shape 별로 모든 plan 을 warmup 한 후 통계를 남긴다.")
+    public void recordStatistics() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(adaptiveMemberSearch.search(condition)).extracting("username").containsExactly("Member_3");
+        }
+
+        assertThat(adaptiveMemberSearch.statistics().get(condition.shape())).containsOnlyKeys(QueryPlan.values());
+    }
+}
@@ -0,0 +1,44 @@
+package study.querydsl.plan;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PlanStatsTest {
+
+    @Test
+    @DisplayName("모든 plan 을 warmup 한 후에는 평균 실행 시간이 가장 짧은 plan 을 고른다.")
+    public void warmupThenExploit() {
+        PlanStats stats = new PlanStats(0.5);
+        Random random = new Random(1);
+
+        for (int i = 0; i < 3 * QueryPlan.values().length; i++) {
+            PlanStats.Decision decision = stats.choose(random, 0.0, 3);
+            assertThat(decision.reason()).isEqualTo("warmup");
+            stats.record(decision.plan(), decision.plan() == QueryPlan.NATIVE_SQL ? 1_000 : 5_000);
+        }
+
+        PlanStats.Decision decision = stats.choose(random, 0.0, 3);
+        assertThat(decision.plan()).isEqualTo(QueryPlan.NATIVE_SQL);
+        assertThat(decision.reason()).isEqualTo("exploit");
+    }
+
+    @Test
+    @DisplayName("느려진 plan 은 지수 이동 평균에 반영되어 다른 plan 으로 바뀐다.")
+    public void adaptToSlowdown() {
+        PlanStats stats = new PlanStats(0.5);
+        stats.record(QueryPlan.FETCH_JOIN, 1_000);
+        stats.record(QueryPlan.DTO_PROJECTION, 2_000);
+        stats.record(QueryPlan.NATIVE_SQL, 3_000);
+        assertThat(stats.best()).isEqualTo(QueryPlan.FETCH_JOIN);
+
+        stats.record(QueryPlan.FETCH_JOIN, 9_000);
+        stats.record(QueryPlan.FETCH_JOIN, 9_000);
+
+        assertThat(stats.best()).isEqualTo(QueryPlan.DTO_PROJECTION);
+        assertThat(stats.choose(new Random(1), 1.0, 0).reason()).isEqualTo("explore");
+    }
+}
@@ -1,5 +1,6 @@
 package study.querydsl.repository;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -10,8 +11,11 @@ import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDTO;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.search.InvalidSearchException;
 
 import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -25,6 +29,9 @@ class MemberJpaRepositoryTest {
     @Autowired
     MemberJpaRepository memberJpaRepository;
 
+    @Autowired
+    MeterRegistry meterRegistry;
+
     @Test
     @DisplayName("MemberJpaRepository 의 코드가 기본적으로 잘 동작하는 지 간단하게 확인")
     public void basicTest() {
@@ -57,6 +64,83 @@ class MemberJpaRepositoryTest {
         assertThat(result2).containsExactly(member);
     }
 
+    @Test
+    @DisplayName("여러 id, username 으로 회원을 한 번에 조회한다.")
+    public void batchLookupTest() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        Member member1 = new Member("member1", 10, teamA);
+        Member member2 = new Member("member2", 20, teamA);
+        Member member3 = new Member("member3", 30);
+        em.persist(member1);
+        em.persist(member2);
+        em.persist(member3);
+        em.flush();
+        em.clear();
+
+        List<Member> byIds = memberJpaRepository.findAllByIds(List.of(member1.getId(), member3.getId(), -1L));
+        assertThat(byIds).extracting("username").containsExactlyInAnyOrder("member1", "member3");
+
+        List<Member> byUsernames = memberJpaRepository.findAllByUsernames(List.of("member2", "member3", "member2"));
+        assertThat(byUsernames).extracting("username").containsExactlyInAnyOrder("member2", "member3");
+
+        List<MemberTeamDTO> lookup = memberJpaRepository.lookup(List.of(member1.getId()), List.of("member1", "member2"));
+        assertThat(lookup).extracting("username").containsExactlyInAnyOrder("member1", "member2");
+        assertThat(lookup).extracting("teamName").containsOnly("teamA");
+    }
+
+    @Test
+    @DisplayName("일괄 조회의 DB 왕복 수는 실제로 실행된 SQL 수로 기록한다.")
+    public void lookupRoundTripsTest() {
+        Member member1 = new Member("member1", 10);
+        Member member2 = new Member("member2", 20);
+        em.persist(member1);
+        em.persist(member2);
+        em.flush();
+        em.clear();
+
+        double before = roundTrips("id");
+        memberJpaRepository.findAllByIds(List.of(member1.getId(), member2.getId()));
+        assertThat(roundTrips("id") - before).isEqualTo(1);
+
+        /* 이미 영속성 컨텍스트에 있는 회원은 조회하지 않는다 */
+        memberJpaRepository.findAllByIds(List.of(member1.getId(), member2.getId()));
+        assertThat(roundTrips("id") - before).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("같은 트랜잭션에서 여러 번 조회해도 호출마다 실행된 SQL 수만 기록한다.")
+    public void lookupRoundTripsInOneTransactionTest() {
+        Member member1 = new Member("member1", 10);
+        Member member2 = new Member("member2", 20);
+        em.persist(member1);
+        em.persist(member2);
+        em.flush();
+        em.clear();
+
+        for (int i = 1; i <= 3; i++) {
+            double before = roundTrips("dto");
+            memberJpaRepository.lookup(List.of(member1.getId()), List.of("member2"));
+            assertThat(roundTrips("dto") - before).as("lookup #%d", i).isEqualTo(1);
+        }
+    }
+
+    @Test
+    @DisplayName("한 번에 조회할 수 있는 키 수보다 많으면 조회하지 않는다.")
+    public void lookupMaxKeysTest() {
+        List<Long> ids = LongStream.rangeClosed(1, 600).boxed().toList();
+        List<String> usernames = IntStream.rangeClosed(1, 401).mapToObj(i -> "member" + i).toList();
+
+        double before = roundTrips("dto");
+        assertThatThrownBy(() -> memberJpaRepository.lookup(ids, usernames))
+                .isInstanceOf(InvalidSearchException.class);
+        assertThat(roundTrips("dto") - before).isZero();
+    }
+
+    private double roundTrips(String keyType) {
+        return meterRegistry.counter("member.lookup.round_trips", "key", keyType).count();
+    }
+
     @Test
     @DisplayName("Builder - 나이가 35세 이상, 40세 이하 이면서 'teamB' 라는 이름을 가진 팀에 소속된 회원을 찾는다.")
     public void searchTest1() {
@@ -7,17 +7,25 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.LinkedMultiValueMap;
+import study.querydsl.controller.MemberController;
+import study.querydsl.dto.MemberDTO;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.dto.UsernameMatch;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.Team;
+import study.querydsl.search.InvalidSearchException;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static study.querydsl.entity.QMember.*;
 
 @SpringBootTest
@@ -30,6 +38,9 @@ class MemberRepositoryTest {
     @Autowired
     MemberRepository memberRepository;
 
+    @Autowired
+    MemberController memberController;
+
     @Test
     @DisplayName("MemberRepository 의 코드가 기본적으로 잘 동작하는 지 간단하게 확인 (With 스프링 데이터 JPA)")
     public void basicTest() {
@@ -98,6 +109,48 @@ class MemberRepositoryTest {
         assertThat(result).extracting("username").containsExactly("member3", "member4");
     }
 
+    @Test
+    @DisplayName("username 검색 방식 - 대소문자 무시 완전 일치, 접두어, 부분 문자열 검색")
+    public void searchByUsernameMatchTest() {
+        em.persist(new Member("MemberA", 10));
+        em.persist(new Member("memberB", 20));
+        em.persist(new Member("guestMember", 30));
+
+        assertThat(memberRepository.searchByUsername("membera", UsernameMatch.EXACT)).isEmpty();
+        assertThat(memberRepository.searchByUsername("membera", UsernameMatch.IGNORE_CASE))
+                .extracting("username").containsExactly("MemberA");
+        assertThat(memberRepository.searchByUsername("MEMBER", UsernameMatch.PREFIX))
+                .extracting("username").containsExactlyInAnyOrder("MemberA", "memberB");
+        assertThat(memberRepository.searchByUsername("member", UsernameMatch.CONTAINS))
+                .extracting("username").containsExactlyInAnyOrder("MemberA", "memberB", "guestMember");
+    }
+
+    record MemberTeamName(String username, String teamName) {
+    }
+
+    @Test
+    @DisplayName("Projection - DTO 의 생성자에 필요한 컬럼만 조회한다. (@QueryProjection, record)")
+    public void findProjectedTest() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+
+        List<MemberDTO> dtos = memberRepository.findProjected(condition, MemberDTO.class);
+        assertThat(dtos).containsExactlyInAnyOrder(new MemberDTO("member2", 20), new MemberDTO("member3", 30));
+
+        List<MemberTeamName> records = memberRepository.findProjected(member.age.loe(20), MemberTeamName.class);
+        assertThat(records).containsExactlyInAnyOrder(
+                new MemberTeamName("member1", "teamA"),
+                new MemberTeamName("member2", "teamA"));
+    }
+
     @Test
     @DisplayName("Simple Paging - Offset: 0, Limit: 3")
     public void searchTest3WithPage() {
@@ -152,6 +205,35 @@ class MemberRepositoryTest {
                 .containsExactly("member1", "member2", "member3");
     }
 
+    @Test
+    @DisplayName("forEachRow - DTO 를 만들지 않고 조건에 맞는 회원을 한 행씩 읽어서 팀별 나이 합계를 구한다.")
+    public void forEachRowTest() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30));
+        em.persist(new Member("member4", 40));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(20);
+
+        long[] ageSum = new long[2];
+        List<String> usernames = new ArrayList<>();
+        long count = memberRepository.forEachRow(condition, row -> {
+            ageSum[row.hasTeam() ? 0 : 1] += row.age();
+            usernames.add(row.username());
+            if (row.hasTeam()) {
+                assertThat(row.teamId()).isEqualTo(teamA.getId());
+                assertThat(row.teamName()).isEqualTo("teamA");
+            }
+        });
+
+        assertThat(count).isEqualTo(3);
+        assertThat(ageSum).containsExactly(20, 70);
+        assertThat(usernames).containsExactly("member2", "member3", "member4");
+    }
+
     @Test
     @DisplayName("QuerydslPredicateExecutor - 나이가 10 ~ 40살 사이이고, 이름이 member1인 회원을 찾는다.")
     public void querydslPredicateExecutorTest() {
@@ -181,4 +263,68 @@ class MemberRepositoryTest {
         assertThat(resultList.get(0).getAge()).isBetween(10, 40);
     }
 
+    @Test
+    @DisplayName("Sorted Paging - 허용된 정렬 키로 정렬하고, 같은 값은 member.id 로 순서를 고정한다.")
+    public void searchWithSortedPage() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 30, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamA));
+        em.persist(new Member("member4", 10, null));
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest byAgeDesc = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "age"));
+
+        Page<MemberTeamDTO> simple = memberRepository.searchWithPageSimple(condition, byAgeDesc);
+        Page<MemberTeamDTO> complex = memberRepository.searchWithPageComplex(condition, byAgeDesc);
+
+        assertThat(simple.getTotalElements()).isEqualTo(4);
+        assertThat(simple.getContent()).extracting("username").containsExactly("member3", "member1", "member2");
+        assertThat(complex.getContent()).extracting("username").containsExactly("member3", "member1", "member2");
+
+        Page<MemberTeamDTO> byUsername = memberRepository.searchWithPageComplex(condition,
+                PageRequest.of(1, 3, Sort.by("username")));
+        assertThat(byUsername.getContent()).extracting("username").containsExactly("member4");
+    }
+
+    @Test
+    @DisplayName("Sorted Paging - /v4/members?sort=age,desc 도 정렬해서 페이지 사이에 빠지거나 겹치는 회원이 없다.")
+    public void searchByPredicateWithSortedPage() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 30, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamA));
+        em.persist(new Member("member4", 10, null));
+
+        Sort byAgeDesc = Sort.by(Sort.Direction.DESC, "age");
+        Page<MemberTeamDTO> first = memberController.searchMemberV4(
+                new LinkedMultiValueMap<>(Map.of("page", List.of("0"), "size", List.of("2"), "sort", List.of("age,desc"))),
+                PageRequest.of(0, 2, byAgeDesc));
+        Page<MemberTeamDTO> second = memberController.searchMemberV4(
+                new LinkedMultiValueMap<>(Map.of("page", List.of("1"), "size", List.of("2"), "sort", List.of("age,desc"))),
+                PageRequest.of(1, 2, byAgeDesc));
+
+        assertThat(first.getTotalElements()).isEqualTo(4);
+        assertThat(first.getContent()).extracting("username").containsExactly("member3", "member1");
+        assertThat(second.getContent()).extracting("username").containsExactly("member2", "member4");
+    }
+
+    @Test
+    @DisplayName("Sorted Paging - 인덱스가 없는 정렬 키나 여러 키를 섞은 정렬은 거절한다.")
+    public void searchWithInvalidSort() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        assertThatThrownBy(() -> memberRepository.searchWithPageSimple(condition,
+                PageRequest.of(0, 10, Sort.by("teamName"))))
+                .isInstanceOf(InvalidSearchException.class);
+        assertThatThrownBy(() -> memberRepository.searchWithPageComplex(condition,
+                PageRequest.of(0, 10, Sort.by("username", "age"))))
+                .isInstanceOf(InvalidSearchException.class);
+        assertThatThrownBy(() -> memberRepository.searchWithPageComplex(condition,
+                PageRequest.of(0, 10, Sort.by(Sort.Order.asc("username").nullsLast()))))
+                .isInstanceOf(InvalidSearchException.class);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,52 @@
+package study.querydsl.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.TeamMembersDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class TeamQueryRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TeamQueryRepository teamQueryRepository;
+
+    @Test
+    @DisplayName("팀 페이지와 팀별 회원을 나누어 조회해도 페이징과 회원 목록이 정확해야 함")
+    public void findTeamsWithMembersTest() {
+        for (int t = 0; t < 5; t++) {
+            Team team = new Team("team" + t);
+            em.persist(team);
+            for (int m = 0; m < t; m++) {
+                em.persist(new Member("member" + t + "_" + m, m, team));
+            }
+        }
+        em.flush();
+        em.clear();
+
+        Page<TeamMembersDTO> result = teamQueryRepository.findTeamsWithMembers(null, PageRequest.of(1, 2));
+
+        assertThat(result.getTotalElements()).isEqualTo(5);
+        assertThat(result.getContent()).extracting("teamName").containsExactly("team2", "team3");
+        assertThat(result.getContent().get(0).getMembers()).extracting("username")
+                .containsExactly("member2_0", "member2_1");
+        assertThat(result.getContent().get(1).getMembers()).hasSize(3);
+
+        Page<TeamMembersDTO> empty = teamQueryRepository.findTeamsWithMembers("team0", PageRequest.of(0, 10));
+        assertThat(empty.getContent()).singleElement()
+                .satisfies(dto -> assertThat(dto.getMembers()).isEmpty());
+    }
+}
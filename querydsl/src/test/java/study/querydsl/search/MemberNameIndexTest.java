@@ -0,0 +1,155 @@
+package study.querydsl.search;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.controller.MemberController;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class MemberNameIndexTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberNameIndex memberNameIndex;
+
+    @Autowired
+    MemberNameIndexLoader memberNameIndexLoader;
+
+    @Autowired
+    MemberController memberController;
+
+    @BeforeEach
+    public void loadIndex() {
+        memberNameIndexLoader.rebuild();
+    }
+
+    /* 색인은 커밋 시점에 갱신되므로 데이터를 커밋하고, 테스트 후 엔티티 단위로 삭제해서 색인에서도 지운다 */
+    @AfterEach
+    public void cleanUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.createQuery("select m from Member m", Member.class).getResultList().forEach(em::remove);
+            em.createNativeQuery("delete from member_team_view").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    @DisplayName("n-gram 색인 - username 의 일부분으로 회원을 찾는다.")
+    public void searchByUsernameFragmentTest() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            em.persist(new Member("alpha-member", 10, teamA));
+            em.persist(new Member("beta-member", 20, teamA));
+            em.persist(new Member("gamma", 30));
+        });
+
+        List<MemberTeamDTO> result = memberRepository.searchByUsernameFragment("MEMB", 10);
+        assertThat(result).extracting("username").containsExactly("alpha-member", "beta-member");
+        assertThat(result).extracting("teamName").containsOnly("teamA");
+
+        assertThat(memberRepository.searchByUsernameFragment("amm", 10))
+                .extracting("username").containsExactly("gamma");
+        assertThat(memberRepository.searchByUsernameFragment("ta", 10))
+                .extracting("username").containsExactly("beta-member");
+    }
+
+    @Test
+    @DisplayName("커밋된 변경만 색인에 반영되고, 롤백된 변경은 반영되지 않는다.")
+    public void indexCommittedChangesOnly() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Long memberId = tx.execute(status -> {
+            Member member = new Member("indexed-before", 10);
+            em.persist(member);
+            em.flush();
+            /* flush 했어도 커밋 전에는 색인에 없다 */
+            assertThat(memberNameIndex.search("indexed", 10)).isEmpty();
+            return member.getId();
+        });
+        assertThat(memberNameIndex.search("indexed", 10)).containsExactly(memberId);
+
+        tx.executeWithoutResult(status -> {
+            em.find(Member.class, memberId).setUsername("rolled-back");
+            status.setRollbackOnly();
+        });
+        assertThat(memberNameIndex.search("rolled", 10)).isEmpty();
+        assertThat(memberNameIndex.search("before", 10)).containsExactly(memberId);
+
+        tx.executeWithoutResult(status -> em.find(Member.class, memberId).setUsername("renamed-after"));
+        assertThat(memberNameIndex.search("before", 10)).isEmpty();
+        assertThat(memberNameIndex.search("renamed", 10)).containsExactly(memberId);
+
+        tx.executeWithoutResult(status -> em.remove(em.find(Member.class, memberId)));
+        assertThat(memberNameIndex.search("renamed", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("limit 개를 찾으면 id 오름차순으로 앞의 limit 개만 반환하고, limit 이 1 보다 작으면 거부한다.")
+    public void searchStopsAtLimit() {
+        List<Long> ids = new TransactionTemplate(transactionManager).execute(status -> {
+            List<Member> members = List.of(
+                    new Member("limit-member1", 10),
+                    new Member("limit-member2", 20),
+                    new Member("other", 30),
+                    new Member("limit-member3", 40));
+            members.forEach(em::persist);
+            return members.stream().map(Member::getId).toList();
+        });
+
+        assertThat(memberNameIndex.search("limit-mem", 2)).containsExactly(ids.get(0), ids.get(1));
+        assertThat(memberNameIndex.search("limit-mem", 10)).containsExactly(ids.get(0), ids.get(1), ids.get(3));
+
+        assertThatThrownBy(() -> memberNameIndex.search("limit-mem", 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> memberController.searchMemberByUsername("limit-mem", -1))
+                .isInstanceOf(InvalidSearchException.class);
+    }
+
+    @Test
+    @DisplayName("색인을 적재하는 중에는 SQL 로 검색하고, 적재 중에 커밋된 변경은 적재한 값보다 우선한다.")
+    public void fallbackWhileLoading() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Long memberId = tx.execute(status -> {
+            Member member = new Member("loading-member", 10);
+            em.persist(member);
+            return member.getId();
+        });
+
+        memberNameIndex.beginLoad();
+        assertThat(memberNameIndex.isReady()).isFalse();
+        assertThatThrownBy(() -> memberNameIndex.search("loading", 10)).isInstanceOf(IllegalStateException.class);
+        assertThat(memberRepository.searchByUsernameFragment("loading", 10))
+                .extracting("username").containsExactly("loading-member");
+
+        /* 적재가 예전 값을 읽은 뒤에 이름이 바뀌어 커밋된 경우 */
+        tx.executeWithoutResult(status -> em.find(Member.class, memberId).setUsername("changed-member"));
+        memberNameIndex.load(memberId, "loading-member");
+        memberNameIndex.markReady();
+
+        assertThat(memberNameIndex.search("loading", 10)).isEmpty();
+        assertThat(memberNameIndex.search("changed", 10)).containsExactly(memberId);
+    }
+}
@@ -0,0 +1,70 @@
+package study.querydsl.search;
+
+import com.querydsl.core.types.Predicate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MemberPredicateCacheTest {
+
+    MemberPredicateCache cache = new MemberPredicateCache(new SimpleMeterRegistry());
+
+    @Test
+    @DisplayName("파라미터 순서가 달라도 같은 검색이면 캐시된 Predicate 를 재사용한다.")
+    public void cachedByNormalizedParameters() {
+        MultiValueMap<String, String> first = new LinkedMultiValueMap<>();
+        first.add("username", "Mem");
+        first.add("age", "30");
+        first.add("age", "20");
+
+        MultiValueMap<String, String> second = new LinkedMultiValueMap<>();
+        second.add("age", "20");
+        second.add("age", "30");
+        second.add("username", "Mem");
+
+        Predicate predicate = cache.resolve(first);
+        assertThat(cache.resolve(second)).isSameAs(predicate);
+        assertThat(predicate.toString()).contains("usernameLower").contains("between");
+    }
+
+    @Test
+    @DisplayName("값에 구분자가 들어 있어도 다른 검색과 캐시 key 가 겹치지 않는다.")
+    public void distinctKeysForAmbiguousValues() {
+        MultiValueMap<String, String> twoPaths = new LinkedMultiValueMap<>();
+        twoPaths.add("team.name", "teamA");
+        twoPaths.add("username", "mem");
+
+        /* 문자열로 이어 붙이면 둘 다 {team.name=[teamA], username=[mem]} 이 된다 */
+        MultiValueMap<String, String> onePath = new LinkedMultiValueMap<>();
+        onePath.add("team.name", "teamA], username=[mem");
+
+        Predicate predicate = cache.resolve(twoPaths);
+        assertThat(cache.resolve(onePath)).isNotSameAs(predicate);
+        assertThat(cache.resolve(onePath).toString()).doesNotContain("usernameLower");
+    }
+
+    @Test
+    @DisplayName("허용되지 않는 경로, 인덱스를 사용할 수 없는 조건은 거절한다.")
+    public void rejectUnsupportedSearches() {
+        MultiValueMap<String, String> unknownPath = new LinkedMultiValueMap<>();
+        unknownPath.add("username", "mem");
+        unknownPath.add("id", "1");
+        assertThatThrownBy(() -> cache.resolve(unknownPath)).isInstanceOf(InvalidSearchException.class);
+
+        MultiValueMap<String, String> ageOnly = new LinkedMultiValueMap<>();
+        ageOnly.add("age", "20");
+        assertThatThrownBy(() -> cache.resolve(ageOnly)).isInstanceOf(InvalidSearchException.class);
+
+        MultiValueMap<String, String> tooManyAges = new LinkedMultiValueMap<>();
+        tooManyAges.add("team.name", "teamA");
+        tooManyAges.add("age", "10");
+        tooManyAges.add("age", "20");
+        tooManyAges.add("age", "30");
+        assertThatThrownBy(() -> cache.resolve(tooManyAges)).isInstanceOf(InvalidSearchException.class);
+    }
+}
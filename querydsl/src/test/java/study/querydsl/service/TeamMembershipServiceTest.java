@@ -0,0 +1,137 @@
+package study.querydsl.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class TeamMembershipServiceTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    Long memberId;
+    Long teamId;
+
+    @BeforeEach
+    public void before() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Team team = new Team("teamB");
+            em.persist(team);
+            Member member = new Member("mover", 10);
+            em.persist(member);
+            teamId = team.getId();
+            memberId = member.getId();
+        });
+    }
+
+    /* 이동은 커밋된 데이터로만 충돌하므로 직접 정리한다 */
+    @AfterEach
+    public void cleanUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.createNativeQuery("delete from member_team_view").executeUpdate();
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    @DisplayName("낙관적 락 충돌이 나면 다시 시도해서 팀을 옮긴다.")
+    public void retryOnConflict() {
+        TeamMembershipService service = service(new ConflictingTransactionManager(2), 5);
+
+        assertThat(service.moveMember(memberId, teamId)).isEqualTo(3);
+
+        Long movedTeamId = new TransactionTemplate(transactionManager).execute(status ->
+                em.find(Member.class, memberId).getTeam().getId());
+        assertThat(movedTeamId).isEqualTo(teamId);
+        assertThat(count("conflict")).isEqualTo(2);
+        assertThat(count("success")).isEqualTo(1);
+        assertThat(count("failure")).isZero();
+    }
+
+    @Test
+    @DisplayName("maxAttempts 번 모두 충돌하면 OptimisticLockingFailureException 으로 실패한다.")
+    public void failAfterMaxAttempts() {
+        ConflictingTransactionManager conflicting = new ConflictingTransactionManager(Integer.MAX_VALUE);
+        TeamMembershipService service = service(conflicting, 3);
+
+        assertThatThrownBy(() -> service.moveMember(memberId, teamId))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+
+        assertThat(conflicting.commits.get()).isEqualTo(3);
+        Member member = new TransactionTemplate(transactionManager).execute(status -> em.find(Member.class, memberId));
+        assertThat(member.getTeam()).isNull();
+        assertThat(count("conflict")).isEqualTo(3);
+        assertThat(count("failure")).isEqualTo(1);
+        assertThat(count("success")).isZero();
+    }
+
+    private TeamMembershipService service(PlatformTransactionManager manager, int maxAttempts) {
+        return new TeamMembershipService(em, manager, meterRegistry, maxAttempts, 1);
+    }
+
+    private double count(String result) {
+        return meterRegistry.counter("member.team_move", "result", result).count();
+    }
+
+    /**
+     * 커밋 직전에 다른 스레드(다른 트랜잭션)에서 같은 회원을 먼저 수정해서 커밋하므로,
+     * 처음 conflicts 번의 커밋은 version 이 맞지 않아 낙관적 락 충돌이 난다.
+     */
+    private class ConflictingTransactionManager implements PlatformTransactionManager {
+
+        private final int conflicts;
+        private final AtomicInteger commits = new AtomicInteger();
+
+        ConflictingTransactionManager(int conflicts) {
+            this.conflicts = conflicts;
+        }
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return transactionManager.getTransaction(definition);
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            if (commits.incrementAndGet() <= conflicts) {
+                CompletableFuture.runAsync(() -> new TransactionTemplate(transactionManager).executeWithoutResult(
+                        concurrent -> {
+                            Member member = em.find(Member.class, memberId);
+                            member.setAge(member.getAge() + 1);
+                        })).join();
+            }
+            transactionManager.commit(status);
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            transactionManager.rollback(status);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package study.querydsl.support;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    @Test
+    @DisplayName("같은 key 로 동시에 들어온 호출은 loader 를 한 번만 실행하고 결과를 공유한다.")
+    public void coalesceConcurrentCalls() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        List<Future<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> singleFlight.execute("teamA", () -> {
+                loads.incrementAndGet();
+                await(release);
+                return 42;
+            })));
+        }
+        /* loader 가 release 에 막혀 있는 동안 나머지 7개 호출이 모두 실행 중인 호출에 합류한 후에 loader 를 끝낸다 */
+        awaitCoalesced(singleFlight, 7);
+        release.countDown();
+
+        for (Future<Integer> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo(42);
+        }
+        executor.shutdown();
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(singleFlight.executions()).isEqualTo(1);
+        assertThat(singleFlight.coalesced()).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("실행이 끝난 key 는 다시 loader 를 실행하고, 예외는 그대로 전달된다.")
+    public void noCachingAndExceptionPropagation() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        assertThat(singleFlight.execute("a", () -> 1)).isEqualTo(1);
+        assertThat(singleFlight.execute("a", () -> 2)).isEqualTo(2);
+        assertThatThrownBy(() -> singleFlight.execute("a", () -> {
+            throw new IllegalStateException("boom");
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(singleFlight.executions()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("실행한 호출이 rerunAfter 를 만족하는 이유로 실패하면, 기다리던 호출은 실패를 받지 않고 다시 실행한다.")
+    public void rerunAfterLeaderFailure() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>(
+                failure -> failure instanceof IllegalStateException);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        /* 먼저 실행한 호출은 취소되어 실패하고, 기다리던 호출은 자신의 loader 로 다시 실행한다 */
+        Future<Integer> leader = executor.submit(() -> singleFlight.execute("teamA", () -> {
+            started.countDown();
+            await(release);
+            throw new IllegalStateException("leader cancelled");
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        Future<Integer> survivor = executor.submit(() -> singleFlight.execute("teamA", () -> 42));
+        awaitCoalesced(singleFlight, 1);
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(survivor.get(5, TimeUnit.SECONDS)).isEqualTo(42);
+        executor.shutdown();
+        assertThat(singleFlight.executions()).isEqualTo(2);
+        assertThat(singleFlight.reruns()).isEqualTo(1);
+    }
+
+    /* 합류한 호출은 실행 중인 호출의 future 를 이미 가지고 있으므로, 이후에 loader 가 끝나도 그 결과를 받는다 */
+    private static void awaitCoalesced(SingleFlight<?, ?> singleFlight, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.coalesced() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(singleFlight.coalesced()).isEqualTo(expected);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package study.querydsl.tenant;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.admission.MemberTableStats;
+import study.querydsl.cdc.ChangeLogs;
+import study.querydsl.controller.TenantAdminController;
+import study.querydsl.dto.MemberCreateRequest;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.export.MemberExportFormat;
+import study.querydsl.export.MemberExportJob;
+import study.querydsl.ingest.MemberIngestionQueue;
+import study.querydsl.search.MemberNameIndex;
+import study.querydsl.search.MemberNameIndexLoader;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest(properties = {"member.tenancy.enabled=true", "member.tenancy.admin-token=test-admin-token"})
+class MultiTenancyTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    TenantSchemaProvisioner provisioner;
+
+    @Autowired
+    TenantConnectionProvider connectionProvider;
+
+    @Autowired
+    MemberNameIndex memberNameIndex;
+
+    @Autowired
+    MemberNameIndexLoader memberNameIndexLoader;
+
+    @Autowired
+    ChangeLogs changeLogs;
+
+    @Autowired
+    MemberTableStats memberTableStats;
+
+    @Autowired
+    MemberExportJob memberExportJob;
+
+    @Autowired
+    TenantAdminController tenantAdminController;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    DataSourceProperties dataSourceProperties;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    public void before() {
+        provisioner.provision("acme");
+        provisioner.provision("globex");
+        /* 비동기 적재를 기다리지 않도록 색인을 직접 적재한다 */
+        TenantContext.run("acme", memberNameIndexLoader::rebuild);
+        TenantContext.run("globex", memberNameIndexLoader::rebuild);
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        for (String tenant : List.of("acme", "globex", TenantContext.DEFAULT_TENANT)) {
+            TenantContext.run(tenant, () -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                em.createNativeQuery("delete from member_team_view").executeUpdate();
+                em.createQuery("delete from Member").executeUpdate();
+                em.createQuery("delete from Team").executeUpdate();
+            }));
+        }
+    }
+
+    @Test
+    @DisplayName("tenant 마다 다른 스키마에 저장되고, 다른 tenant 의 데이터는 보이지 않아야 함")
+    public void schemaPerTenantTest() {
+        TenantContext.run("acme", () -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Team team = new Team("teamA");
+            em.persist(team);
+            em.persist(new Member("acmeMember", 10, team));
+        }));
+
+        assertThat(TenantContext.call("acme", this::countMembers)).isEqualTo(1);
+        assertThat(TenantContext.call("globex", this::countMembers)).isZero();
+        assertThat(countMembers()).isZero();
+
+        /* 메모리 색인도 tenant 별로 나누어져 있어야 함 */
+        assertThat(TenantContext.call("acme", () -> memberNameIndex.search("acmemem", 10))).hasSize(1);
+        assertThat(TenantContext.call("globex", () -> memberNameIndex.search("acmemem", 10))).isEmpty();
+
+        assertThat(connectionProvider.openPools()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("배치 저장과 변경 로그는 요청한 tenant 에만 남아야 함")
+    public void ingestionAndChangeLogPerTenantTest() throws Exception {
+        long acmeFrom = changeLogs.of("acme").nextOffset();
+        long globexFrom = changeLogs.of("globex").nextOffset();
+        long publicFrom = changeLogs.of(TenantContext.DEFAULT_TENANT).nextOffset();
+
+        /* 두 tenant 의 요청이 한 배치에 섞이도록 모아서 저장한다 */
+        MemberIngestionQueue queue = new MemberIngestionQueue(em, transactionManager, 100, 100, 500, 10);
+        queue.start();
+        try {
+            CompletableFuture<Void> acme = TenantContext.call("acme", () -> queue.submit(List.of(
+                    new MemberCreateRequest("acme1", 10, null), new MemberCreateRequest("acme2", 20, null))));
+            CompletableFuture<Void> globex = TenantContext.call("globex", () -> queue.submit(List.of(
+                    new MemberCreateRequest("globex1", 30, null))));
+            acme.get(5, TimeUnit.SECONDS);
+            globex.get(5, TimeUnit.SECONDS);
+        } finally {
+            queue.stop();
+        }
+
+        assertThat(TenantContext.call("acme", this::countMembers)).isEqualTo(2);
+        assertThat(TenantContext.call("globex", this::countMembers)).isEqualTo(1);
+        assertThat(countMembers()).isZero();
+
+        assertThat(changeLogs.of("acme").read(acmeFrom, 100).changes()).hasSize(2);
+        assertThat(changeLogs.of("globex").read(globexFrom, 100).changes()).hasSize(1);
+        assertThat(changeLogs.of(TenantContext.DEFAULT_TENANT).nextOffset()).isEqualTo(publicFrom);
+        assertThat(TenantContext.call("acme", changeLogs::current)).isSameAs(changeLogs.of("acme"));
+    }
+
+    @Test
+    @DisplayName("백그라운드 작업만 있는 tenant 의 풀은 닫히고, 풀이 닫히면 tenant 의 통계와 색인을 버려야 함")
+    public void evictIdleTenantTest() throws Exception {
+        TenantContext.run("acme", () -> new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                em.persist(new Member("acmeMember", 10))));
+        TenantContext.call("acme", memberTableStats::refresh);
+        assertThat(TenantContext.call("acme", memberTableStats::snapshot).members()).isEqualTo(1);
+        assertThat(TenantContext.call("acme", memberNameIndex::isReady)).isTrue();
+
+        /* poolTtl 이 짧은 provider 로 풀을 만들고, ttl 이 지난 후에는 백그라운드로만 사용한다 */
+        TenantConnectionProvider provider = new TenantConnectionProvider(dataSource, dataSourceProperties,
+                eventPublisher, new SimpleMeterRegistry(), 2, 30_000, 100);
+        try {
+            provider.getConnection("acme").close();
+            Thread.sleep(150);
+            TenantContext.runInBackground("acme", () -> {
+                try {
+                    provider.getConnection("acme").close();
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            provider.evictIdlePools();
+            assertThat(provider.openPools()).isZero();
+        } finally {
+            provider.shutdown();
+        }
+
+        assertThat(TenantContext.call("acme", memberTableStats::snapshot).known()).isFalse();
+        assertThat(TenantContext.call("acme", memberNameIndex::isReady)).isFalse();
+
+        /* 다시 요청되면 색인을 다시 적재한다 */
+        assertThat(provisioner.activate("acme")).isTrue();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!TenantContext.call("acme", memberNameIndex::isReady) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(TenantContext.call("acme", () -> memberNameIndex.search("acmemem", 10))).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("등록되지 않은 tenant 는 요청을 받지 않고 스키마도 만들지 않아야 함")
+    public void unknownTenantTest() {
+        assertThat(provisioner.isProvisioned("acme")).isTrue();
+        assertThat(provisioner.activate("initech")).isFalse();
+        assertThat(provisioner.isProvisioned("initech")).isFalse();
+
+        Long schemas = new TransactionTemplate(transactionManager).execute(status -> ((Number) em.createNativeQuery(
+                        "select count(*) from information_schema.schemata where schema_name = 'TENANT_INITECH'")
+                .getSingleResult()).longValue());
+        assertThat(schemas).isZero();
+        /* 이미 등록된 tenant 를 다시 등록하면 아무것도 하지 않는다 */
+        assertThat(provisioner.provision("acme")).isFalse();
+    }
+
+    @Test
+    @DisplayName("tenant 등록은 관리 토큰이 일치하는 요청만 받아야 함")
+    public void adminTokenTest() {
+        assertThat(tenantAdminController.provision(null, "initech").getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(tenantAdminController.provision("wrong-token", "initech").getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(tenantAdminController.tenant(null, "acme").getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(provisioner.isProvisioned("initech")).isFalse();
+
+        assertThat(tenantAdminController.provision("test-admin-token", "acme").getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(tenantAdminController.tenant("test-admin-token", "acme").getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(tenantAdminController.tenant("test-admin-token", "initech").getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    @DisplayName("export 는 요청한 tenant 의 회원만 tenant 별 파일로 내보내야 함")
+    public void exportPerTenantTest() {
+        TenantContext.run("acme", () -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.persist(new Member("acmeMember1", 10));
+            em.persist(new Member("acmeMember2", 20));
+        }));
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                em.persist(new Member("publicMember", 30)));
+
+        assertThat(TenantContext.call("acme", () -> memberExportJob.runNow("tenantSnapshot")).getRows()).isEqualTo(2);
+        assertThat(memberExportJob.runNow("tenantSnapshot").getRows()).isEqualTo(1);
+        assertThat(TenantContext.call("globex", () -> memberExportJob.progress("tenantSnapshot"))).isEmpty();
+
+        List<String> acmeUsernames = new ArrayList<>();
+        MemberExportFormat.read(TenantContext.call("acme", () -> memberExportJob.dataFile("tenantSnapshot")),
+                row -> acmeUsernames.add(row.getUsername()));
+        assertThat(acmeUsernames).containsExactly("acmeMember1", "acmeMember2");
+        assertThat(TenantContext.call("acme", () -> memberExportJob.dataFile("tenantSnapshot")))
+                .isNotEqualTo(memberExportJob.dataFile("tenantSnapshot"));
+    }
+
+    @Test
+    @DisplayName("스키마 이름으로 사용할 수 없는 tenant id 는 거부해야 함")
+    public void invalidTenantTest() {
+        assertThat(TenantContext.normalize(" Acme ")).isEqualTo("acme");
+        assertThatThrownBy(() -> TenantContext.normalize("acme;drop schema public"))
+                .isInstanceOf(InvalidTenantException.class);
+        assertThatThrownBy(() -> TenantContext.normalize(null))
+                .isInstanceOf(InvalidTenantException.class);
+    }
+
+    private long countMembers() {
+        return new TransactionTemplate(transactionManager).execute(status ->
+                em.createQuery("select count(m) from Member m", Long.class).getSingleResult());
+    }
+}
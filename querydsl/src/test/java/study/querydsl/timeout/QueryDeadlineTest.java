@@ -0,0 +1,68 @@
+package study.querydsl.timeout;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.support.DeadlineJPAQueryFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.*;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+@Transactional
+class QueryDeadlineTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Test
+    @DisplayName("예산 안에서 만든 쿼리에는 남은 시간이 초 단위로 올림되어 timeout 으로 걸려야 함")
+    public void timeoutHintTest() {
+        DeadlineJPAQueryFactory queryFactory = new DeadlineJPAQueryFactory(em);
+        JPAQuery<Member> query = queryFactory.selectFrom(member);
+
+        Integer timeout = QueryDeadline.after(Duration.ofMillis(1500))
+                .call(() -> query.createQuery().unwrap(org.hibernate.query.Query.class).getTimeout());
+        assertThat(timeout).isEqualTo(2);
+
+        /* 예산이 없으면 timeout 을 걸지 않는다 */
+        Integer withoutDeadline = query.createQuery().unwrap(org.hibernate.query.Query.class).getTimeout();
+        assertThat(withoutDeadline).isNull();
+    }
+
+    @Test
+    @DisplayName("마감이 지났거나 취소된 예산으로는 쿼리를 실행하지 않아야 함")
+    public void expiredDeadlineTest() {
+        DeadlineJPAQueryFactory queryFactory = new DeadlineJPAQueryFactory(em);
+
+        QueryDeadline expired = QueryDeadline.after(Duration.ZERO);
+        assertThatThrownBy(() -> expired.call(() -> queryFactory.selectFrom(member).fetch()))
+                .isInstanceOf(QueryDeadlineExceededException.class);
+
+        QueryDeadline cancelled = QueryDeadline.after(Duration.ofSeconds(10));
+        cancelled.cancel();
+        assertThatThrownBy(() -> cancelled.call(() -> queryFactory.selectFrom(member).fetchCount()))
+                .isInstanceOf(QueryDeadlineExceededException.class);
+        assertThat(SearchTimeouts.isTimeout(new RuntimeException(new QueryDeadlineExceededException("x")))).isTrue();
+    }
+
+    @Test
+    @DisplayName("다른 스레드에서 실행되는 작업에도 호출한 스레드의 예산이 전달되어야 함")
+    public void propagateTest() {
+        QueryDeadline deadline = QueryDeadline.after(Duration.ofSeconds(10));
+
+        QueryDeadline seen = deadline.call(() ->
+                CompletableFuture.supplyAsync(QueryDeadline.propagate(QueryDeadline::current)).join());
+
+        assertThat(seen).isSameAs(deadline);
+        assertThat(QueryDeadline.current()).isNull();
+    }
+}
@@ -0,0 +1,108 @@
+package study.querydsl.timeout;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class SearchTimeoutsTest {
+
+    /* 취소하지 않으면 끝나지 않을 만큼 오래 걸리는 쿼리 (alias 로 실행 중인 statement 를 찾는다) */
+    private static final String SLOW_QUERY = "select count(*) as slow_search_rows"
+            + " from system_range(1, 1000000) a, system_range(1, 1000000) b where a.x + b.x < 0";
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /* 예산은 충분히 길게 잡고, timeout 은 직접 발생시킨다 */
+    SearchTimeouts searchTimeouts = new SearchTimeouts(meterRegistry,
+            Duration.ofSeconds(30), Duration.ofSeconds(30), Duration.ofSeconds(30), Duration.ofSeconds(1), 2, 10);
+
+    @AfterEach
+    public void shutdown() {
+        searchTimeouts.shutdown();
+    }
+
+    @Test
+    @DisplayName("실행 중에 timeout 이 나면 실행 중인 statement 를 취소한다.")
+    public void timeoutCancelsRunningStatement() throws Exception {
+        SearchTimeouts.BudgetedSearch<Object> search = searchTimeouts.budgeted("/v1/members", () ->
+                new TransactionTemplate(transactionManager).execute(status ->
+                        QueryDeadline.applyTo(em.createNativeQuery(SLOW_QUERY)).getSingleResult()));
+
+        long start = System.nanoTime();
+        CompletableFuture<Object> running = CompletableFuture.supplyAsync(() -> {
+            try {
+                return search.call();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        awaitRunningStatement();
+
+        assertThatThrownBy(search::timeout).isInstanceOf(QueryDeadlineExceededException.class);
+
+        assertThatThrownBy(() -> running.get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .satisfies(e -> assertThat(SearchTimeouts.isTimeout(e)).isTrue());
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(10));
+        assertThat(count("/v1/members", "deadline")).isEqualTo(1);
+        /* 취소한 경우는 statement timeout 으로 다시 세지 않는다 */
+        assertThat(count("/v1/members", "statement")).isZero();
+    }
+
+    @Test
+    @DisplayName("시작하기 전에 timeout 이 났으면 검색을 실행하지 않는다.")
+    public void timeoutBeforeStart() {
+        AtomicBoolean executed = new AtomicBoolean();
+        SearchTimeouts.BudgetedSearch<Boolean> search = searchTimeouts.budgeted("/v2/members",
+                () -> executed.getAndSet(true));
+
+        assertThatThrownBy(search::timeout).isInstanceOf(QueryDeadlineExceededException.class);
+        assertThatThrownBy(search::call).isInstanceOf(QueryDeadlineExceededException.class);
+
+        assertThat(executed).isFalse();
+        assertThat(count("/v2/members", "deadline")).isEqualTo(1);
+    }
+
+    /* 다른 세션에서 SLOW_QUERY 가 실행되기 시작할 때까지 기다린다 */
+    private void awaitRunningStatement() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            Long running = new TransactionTemplate(transactionManager).execute(status -> ((Number) em.createNativeQuery(
+                            "select count(*) from information_schema.sessions"
+                                    + " where executing_statement like '%slow' || '_search_rows%'")
+                    .getSingleResult()).longValue());
+            if (running != null && running > 0) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("slow query did not start");
+    }
+
+    private double count(String endpoint, String reason) {
+        return meterRegistry.counter("member.search.timeouts", "endpoint", endpoint, "reason", reason).count();
+    }
+}
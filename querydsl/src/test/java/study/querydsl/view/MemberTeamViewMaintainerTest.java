@@ -0,0 +1,112 @@
+package study.querydsl.view;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDTO;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+class MemberTeamViewMaintainerTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    MemberTeamViewMaintainer memberTeamViewMaintainer;
+
+    /* view 는 커밋 시점에 갱신되므로 데이터를 커밋하고, 테스트 후 직접 정리한다 */
+    @AfterEach
+    public void cleanUp() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+            em.createNativeQuery("delete from member_team_view").executeUpdate();
+        });
+    }
+
+    @Test
+    @DisplayName("회원 추가 / 수정 / 팀 이동 / 삭제와 팀 이름 변경이 커밋되면 view 에 반영된다.")
+    public void maintainIncrementally() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Long[] ids = tx.execute(status -> {
+            Team teamA = new Team("viewTeamA");
+            Team teamB = new Team("viewTeamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            Member member1 = new Member("viewMember1", 10, teamA);
+            Member member2 = new Member("viewMember2", 20, teamA);
+            em.persist(member1);
+            em.persist(member2);
+            return new Long[]{teamA.getId(), teamB.getId(), member1.getId(), member2.getId()};
+        });
+
+        assertThat(searchByTeam("viewTeamA")).extracting("username")
+                .containsExactlyInAnyOrder("viewMember1", "viewMember2");
+
+        tx.executeWithoutResult(status -> {
+            Member member1 = em.find(Member.class, ids[2]);
+            member1.setAge(11);
+            member1.changeTeam(em.find(Team.class, ids[1]));
+            em.remove(em.find(Member.class, ids[3]));
+        });
+        assertThat(searchByTeam("viewTeamA")).isEmpty();
+        assertThat(searchByTeam("viewTeamB")).extracting("username", "age")
+                .containsExactly(tuple("viewMember1", 11));
+
+        /* 롤백된 변경은 반영되지 않는다 */
+        tx.executeWithoutResult(status -> {
+            em.find(Team.class, ids[1]).setName("ignored");
+            status.setRollbackOnly();
+        });
+        tx.executeWithoutResult(status -> em.find(Team.class, ids[1]).setName("viewTeamC"));
+        assertThat(searchByTeam("viewTeamB")).isEmpty();
+        assertThat(searchByTeam("viewTeamC")).extracting("memberId").containsExactly(ids[2]);
+    }
+
+    @Test
+    @DisplayName("rebuild 는 member left join team 결과로 view 를 다시 만든다.")
+    public void rebuild() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Team team = new Team("viewTeamA");
+            em.persist(team);
+            em.persist(new Member("viewMember1", 10, team));
+            em.persist(new Member("viewMember2", 20));
+        });
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                em.createNativeQuery("delete from member_team_view").executeUpdate());
+
+        assertThat(memberTeamViewMaintainer.rebuild()).isEqualTo(2);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUsername("viewMember2");
+        List<MemberTeamDTO> result = memberRepository.searchFromViewWithPage(condition, PageRequest.of(0, 10)).getContent();
+        assertThat(result).extracting("teamId", "teamName").containsExactly(tuple(null, null));
+    }
+
+    private List<MemberTeamDTO> searchByTeam(String teamName) {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName(teamName);
+        return memberRepository.searchFromView(condition);
+    }
+}